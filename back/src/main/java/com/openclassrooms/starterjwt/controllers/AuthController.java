@@ -1,27 +1,50 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.JwtVerification;
+import com.openclassrooms.starterjwt.security.services.LoginExecutor;
+import com.openclassrooms.starterjwt.security.services.LoginThrottle;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import com.openclassrooms.starterjwt.security.services.RegistrationQueue;
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -31,47 +54,128 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final LoginExecutor loginExecutor;
+    private final LoginThrottle loginThrottle;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final RegisteredEmailFilter registeredEmails;
+    private final RegistrationQueue registrationQueue;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            LoginExecutor loginExecutor,
+            LoginThrottle loginThrottle,
+            TokenRevocationService tokenRevocationService,
+            RefreshTokenService refreshTokenService,
+            UserDetailsServiceImpl userDetailsService,
+            RegisteredEmailFilter registeredEmails,
+            RegistrationQueue registrationQueue) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.loginExecutor = loginExecutor;
+        this.loginThrottle = loginThrottle;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.userDetailsService = userDetailsService;
+        this.registeredEmails = registeredEmails;
+        this.registrationQueue = registrationQueue;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        // Rejet avant tout accès à la base ou au PasswordEncoder
+        long retryAfterMs = loginThrottle.retryAfterMillis(loginRequest.getEmail(), clientIp);
+        if (retryAfterMs > 0) {
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000))
+                    .body(new MessageResponse("Error: Too many failed login attempts, please retry later!"));
+        }
+
+        Authentication authentication;
+        try {
+            authentication = loginExecutor.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginExecutor.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Error: Too many login attempts, please retry later!"));
+        } catch (AuthenticationException e) {
+            loginThrottle.recordFailure(loginRequest.getEmail(), clientIp);
+            throw e;
+        }
+        loginThrottle.recordSuccess(loginRequest.getEmail(), clientIp);
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
+        // Le principal chargé par UserDetailsServiceImpl porte déjà le flag admin : pas de seconde requête
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
+        return ResponseEntity.ok(jwtResponse(jwt, userDetails, refreshTokenService.issue(userDetails.getId())));
+    }
+
+    /**
+     * Émet un nouveau token d'accès à partir d'un refresh token, sans repasser par le PasswordEncoder.
+     * Le refresh token présenté est consommé et remplacé.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (!rotation.isPresent()) {
+            return invalidRefreshToken();
         }
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getFirstName(),
-                userDetails.getLastName(),
-                isAdmin));
+        UserDetailsImpl userDetails;
+        try {
+            userDetails = userDetailsService.loadUserById(rotation.get().getUserId());
+        } catch (UsernameNotFoundException e) {
+            return invalidRefreshToken();
+        }
+
+        String jwt = jwtUtils.generateJwtToken(userDetails);
+
+        return ResponseEntity.ok(jwtResponse(jwt, userDetails, rotation.get().getRefreshToken()));
     }
 
-    @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+    /**
+     * Révoque le token d'accès présenté et, si le refresh token est fourni, toute sa chaîne de rotation.
+     * Les deux sont indépendants : un token d'accès expiré n'empêche pas de révoquer le refresh token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshRequest refreshRequest) {
+        boolean refreshRevoked = refreshRequest != null && refreshTokenService.revoke(refreshRequest.getRefreshToken());
+
+        String jwt = JwtUtils.parseBearerToken(authorization);
+        JwtVerification verification = jwt != null ? jwtUtils.verify(jwt) : null;
+        boolean accessRevocable = verification != null && verification.isValid() && verification.getClaims().getId() != null;
+
+        if (!accessRevocable && !refreshRevoked) {
             return ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
+                    .body(new MessageResponse("Error: No revocable token provided!"));
+        }
+
+        if (accessRevocable) {
+            tokenRevocationService.revoke(verification.getClaims().getId(), verification.getClaims().getExpiration());
+        }
+        SecurityContextHolder.clearContext();
+
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully!"));
+    }
+
+    @PostMapping("/register")
+    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        if (registrationQueue.isEnabled()) {
+            return enqueueRegistration(signUpRequest);
         }
 
         // Create new user's account
@@ -81,8 +185,69 @@ public class AuthController {
                 passwordEncoder.encode(signUpRequest.getPassword()),
                 false);
 
-        userRepository.save(user);
+        // Une seule requête : la contrainte d'unicité tranche entre inscriptions concurrentes,
+        // là où un existsByEmail préalable laissait passer les deux
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Toute autre contrainte violée est une vraie erreur, pas un email déjà pris
+            if (!UserRepository.isEmailConflict(e)) {
+                throw e;
+            }
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Email is already taken!"));
+        }
+        registeredEmails.add(user.getEmail());
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    /**
+     * Mode asynchrone : la requête validée est acquittée en 202, le suivi se fait sur l'URL de Location.
+     */
+    private ResponseEntity<?> enqueueRegistration(SignupRequest signUpRequest) {
+        String id;
+        try {
+            id = registrationQueue.submit(signUpRequest);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(registrationQueue.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Error: Too many registrations, please retry later!"));
+        }
+
+        URI statusUrl = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(id).toUri();
+        return ResponseEntity
+                .accepted()
+                .location(statusUrl)
+                .body(new MessageResponse("Registration accepted!"));
+    }
+
+    @GetMapping("/register/{id}")
+    public ResponseEntity<?> registrationStatus(@PathVariable("id") String id) {
+        RegistrationQueue.Status status = registrationQueue.getStatus(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(status);
+    }
+
+    private static JwtResponse jwtResponse(String jwt, UserDetailsImpl userDetails, String refreshToken) {
+        JwtResponse response = new JwtResponse(jwt,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                Boolean.TRUE.equals(userDetails.getAdmin()));
+        response.setRefreshToken(refreshToken);
+        return response;
+    }
+
+    private static ResponseEntity<?> invalidRefreshToken() {
+        return ResponseEntity
+                .status(HttpStatus.UNAUTHORIZED)
+                .body(new MessageResponse("Error: Invalid refresh token!"));
+    }
 }
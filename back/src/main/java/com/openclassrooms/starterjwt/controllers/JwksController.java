@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clés publiques de vérification des tokens, pour les services qui les valident localement.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+public class JwksController {
+    private final JwtKeyRing keyRing;
+
+    public JwksController(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<?> jwks() {
+        // Les clés ne changent qu'au redémarrage : les consommateurs peuvent les garder en cache
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                .body(this.keyRing.getJwks());
+    }
+}
@@ -2,11 +2,16 @@ package com.openclassrooms.starterjwt.controllers;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.payload.response.PageResponse;
+import com.openclassrooms.starterjwt.services.SessionPaging;
 import com.openclassrooms.starterjwt.services.SessionService;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -19,12 +24,15 @@ import java.util.List;
 public class SessionController {
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SessionPaging sessionPaging;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             SessionPaging sessionPaging) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.sessionPaging = sessionPaging;
     }
 
     @GetMapping("/{id}")
@@ -43,13 +51,60 @@ public class SessionController {
     }
 
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "size", required = false) Integer size,
+                                     @Valid SessionFilter filter) {
+        if (!filter.isEmpty()) {
+            // Filtres : toutes les séances retenues, en une requête, non combinable avec la pagination
+            if (cursor != null || size != null) {
+                throw new BadRequestException();
+            }
+            List<Session> sessions = this.sessionService.search(filter);
+
+            return ResponseEntity.ok().body(toDto(sessions));
+        }
+
+        if (this.sessionPaging.isUnpaged(cursor, size)) {
+            List<Session> sessions = this.sessionService.findAll();
+
+            return ResponseEntity.ok().body(toDto(sessions));
+        }
+
+        int pageSize = this.sessionPaging.pageSize(size);
+        // Une séance de plus que la page : sa présence indique qu'une page suivante existe
+        List<Session> sessions = this.sessionService.findPage(this.sessionPaging.decode(cursor), pageSize + 1);
+        String nextCursor = null;
+        if (sessions.size() > pageSize) {
+            sessions = sessions.subList(0, pageSize);
+            nextCursor = this.sessionPaging.encode(sessions.get(pageSize - 1));
+        }
+
+        return ResponseEntity.ok().body(new PageResponse<>(toDto(sessions), nextCursor));
+    }
+
+    /**
+     * Séances à venir, par date : le parcours courant, qui ne relit jamais les séances passées.
+     */
+    @GetMapping("/upcoming")
+    public ResponseEntity<?> findUpcoming() {
+        return ResponseEntity.ok().body(toDto(this.sessionService.findUpcoming()));
+    }
+
+    /**
+     * Séances sans description ni identifiants des participants, seulement leur nombre.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> findAllSummaries() {
+        return ResponseEntity.ok().body(this.sessionService.findAllSummaries());
+    }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    // Les participants d'une liste sont lus en une requête, quel que soit le nombre de séances
+    private List<SessionDto> toDto(List<Session> sessions) {
+        return this.sessionMapper.toDto(sessions, this.sessionService.findParticipantIds(sessions));
     }
 
     @PostMapping()
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
 
@@ -60,6 +115,7 @@ public class SessionController {
     }
 
     @PutMapping("{id}")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         try {
             Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
@@ -71,6 +127,7 @@ public class SessionController {
     }
 
     @DeleteMapping("{id}")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
             Session session = this.sessionService.getById(Long.valueOf(id));
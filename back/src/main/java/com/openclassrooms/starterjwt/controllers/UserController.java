@@ -2,13 +2,19 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.UserImportService;
 import com.openclassrooms.starterjwt.services.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Objects;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,12 +23,15 @@ import java.util.Objects;
 public class UserController {
     private final UserMapper userMapper;
     private final UserService userService;
+    private final UserImportService userImportService;
 
 
     public UserController(UserService userService,
-                             UserMapper userMapper) {
+                             UserMapper userMapper,
+                             UserImportService userImportService) {
         this.userMapper = userMapper;
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     @GetMapping("/{id}")
@@ -61,4 +70,16 @@ public class UserController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // Le corps est lu en flux : la taille du fichier n'est pas limitée par la mémoire
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) throws IOException {
+        UserImportService.Format format = "x-ndjson".equals(MediaType.parseMediaType(contentType).getSubtype())
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+
+        return ResponseEntity.ok(this.userImportService.importUsers(body, format));
+    }
 }
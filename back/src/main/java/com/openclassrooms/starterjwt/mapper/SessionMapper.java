@@ -8,11 +8,14 @@ import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -39,4 +42,22 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    public abstract SessionDto toDtoWithoutUsers(Session session);
+
+    /**
+     * Liste sans initialiser Session.users : les participants viennent de SessionService.findParticipantIds.
+     */
+    public List<SessionDto> toDto(List<Session> sessions, Map<Long, List<Long>> participantIds) {
+        return sessions.stream().map(session -> {
+            SessionDto sessionDto = toDtoWithoutUsers(session);
+            sessionDto.setUsers(participantIds.getOrDefault(session.getId(), Collections.emptyList()));
+            return sessionDto;
+        }).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+@Entity
+@Table(name = "REFRESH_TOKENS", uniqueConstraints = {
+        @UniqueConstraint(columnNames = "token_hash")
+})
+@Data
+@Accessors(chain = true)
+@EntityListeners(AuditingEntityListener.class)
+@EqualsAndHashCode(of = { "id" })
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Empreinte SHA-256 du token : la valeur elle-même n'est jamais stockée
+    @NotNull
+    @Size(max = 44)
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Chaîne de rotation issue d'un même login, révoquée en bloc en cas de réutilisation
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "family_id")
+    private String familyId;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Date expiresAt;
+
+    private boolean revoked;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+@Entity
+@Table(name = "REVOKED_TOKENS", uniqueConstraints = {
+        @UniqueConstraint(columnNames = "token_id")
+})
+@Data
+@Accessors(chain = true)
+@EntityListeners(AuditingEntityListener.class)
+@EqualsAndHashCode(of = { "id" })
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RevokedToken {
+    // Croissant : sert de curseur aux instances qui relisent la table
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "token_id")
+    private String tokenId;
+
+    @NotNull
+    @Column(name = "expires_at")
+    private Date expiresAt;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
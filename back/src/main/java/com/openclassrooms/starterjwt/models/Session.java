@@ -8,6 +8,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -16,7 +17,9 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "idx_sessions_date_id", columnList = "date, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -41,11 +44,18 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
+    // Nombre de places ; pas de limite si null
+    @Min(1)
+    private Integer capacity;
+
     @OneToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Chargée à la demande : les listes n'en lisent que les identifiants (SessionRepository.findParticipantIds),
+    // le détail la joint explicitement (SessionRepository.findWithUsersById)
+    @ManyToMany
+    @ToString.Exclude
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
@@ -10,10 +10,12 @@ import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @Table(name = "USERS", uniqueConstraints = {
-        @UniqueConstraint(columnNames = "email")
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email"),
+        @UniqueConstraint(name = "uk_users_email_normalized", columnNames = "email_normalized")
 })
 @Data
 @Accessors(chain = true)
@@ -25,6 +27,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class User {
+    // Préfixe commun aux deux contraintes d'unicité de l'email, tel que rapporté par la base
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,6 +39,11 @@ public class User {
     @Email
     private String email;
 
+    // Clé de recherche des emails : toujours dérivée de email, jamais renseignée directement
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_normalized", nullable = false)
+    private String normalizedEmail;
+
     @NonNull
     @Size(max = 20)
     @Column(name = "last_name")
@@ -64,4 +74,17 @@ public class User {
         return this.admin;
     }
 
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedEmail() {
+        this.normalizedEmail = normalizeEmail(this.email);
+    }
+
+    /**
+     * Forme sous laquelle les emails sont comparés : sans espaces autour et en minuscules.
+     */
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
 }
@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Date;
+
+@Entity
+@Table(name = "USER_CHANGES")
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = { "id" })
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserChange {
+    // Croissant : sert de curseur aux instances qui relisent la table
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Size(max = 255)
+    private String email;
+
+    @NotNull
+    @Column(name = "changed_at")
+    private Date changedAt;
+}
@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import java.time.OffsetDateTime;
+
+import javax.validation.constraints.Size;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Filtres de GET /api/session, tous facultatifs et combinables.
+ */
+public class SessionFilter {
+	private Long teacher_id;
+
+	// Fenêtre [from, to)
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private OffsetDateTime from;
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private OffsetDateTime to;
+
+	// Début du nom : une recherche par préfixe reste un parcours d'intervalle, contrairement à un « contient »
+	@Size(min = 1, max = 50)
+	private String name;
+
+	private Boolean freeSeats;
+
+	public Long getTeacher_id() {
+		return teacher_id;
+	}
+
+	public void setTeacher_id(Long teacher_id) {
+		this.teacher_id = teacher_id;
+	}
+
+	public OffsetDateTime getFrom() {
+		return from;
+	}
+
+	public void setFrom(OffsetDateTime from) {
+		this.from = from;
+	}
+
+	public OffsetDateTime getTo() {
+		return to;
+	}
+
+	public void setTo(OffsetDateTime to) {
+		this.to = to;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Boolean getFreeSeats() {
+		return freeSeats;
+	}
+
+	public void setFreeSeats(Boolean freeSeats) {
+		this.freeSeats = freeSeats;
+	}
+
+	public boolean isEmpty() {
+		return teacher_id == null && from == null && to == null && name == null && !Boolean.TRUE.equals(freeSeats);
+	}
+}
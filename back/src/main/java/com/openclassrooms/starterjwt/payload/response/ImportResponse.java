@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bilan d'un import d'utilisateurs. Seules les premières erreurs sont détaillées,
+ * pour qu'un fichier entièrement invalide ne produise pas une réponse aussi grosse que lui.
+ */
+public class ImportResponse {
+  private final int maxErrors;
+
+  private int imported;
+
+  private int failed;
+
+  private final List<RowError> errors = new ArrayList<>();
+
+  private boolean errorsTruncated;
+
+  public ImportResponse(int maxErrors) {
+    this.maxErrors = maxErrors;
+  }
+
+  public void addImported(int count) {
+    imported += count;
+  }
+
+  public void addError(int line, String email, String message) {
+    failed++;
+    if (errors.size() < maxErrors) {
+      errors.add(new RowError(line, email, message));
+    } else {
+      errorsTruncated = true;
+    }
+  }
+
+  public int getImported() {
+    return imported;
+  }
+
+  public int getFailed() {
+    return failed;
+  }
+
+  public List<RowError> getErrors() {
+    return errors;
+  }
+
+  public boolean isErrorsTruncated() {
+    return errorsTruncated;
+  }
+
+  public static class RowError {
+    private final int line;
+    private final String email;
+    private final String message;
+
+    public RowError(int line, String email, String message) {
+      this.line = line;
+      this.email = email;
+      this.message = message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+}
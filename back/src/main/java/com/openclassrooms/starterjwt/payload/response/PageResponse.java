@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import java.util.List;
+
+/**
+ * Page d'une liste parcourue par curseur ; nextCursor est absent sur la dernière page.
+ */
+public class PageResponse<T> {
+  private final List<T> items;
+
+  private final String nextCursor;
+
+  public PageResponse(List<T> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
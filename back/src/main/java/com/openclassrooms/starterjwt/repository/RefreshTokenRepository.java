@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+  // Verrou pour que deux rafraîchissements simultanés du même token ne puissent pas réussir tous les deux
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+  int revokeFamily(@Param("familyId") String familyId);
+
+  @Transactional
+  long deleteByExpiresAtBefore(Date date);
+}
@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+  List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long id);
+
+  @Transactional
+  long deleteByExpiresAtBefore(Date date);
+}
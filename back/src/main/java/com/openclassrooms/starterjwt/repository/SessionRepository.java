@@ -1,9 +1,72 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, JpaSpecificationExecutor<Session> {
+    // Les listes joignent le professeur dans la même requête et ne lisent jamais PARTICIPATE
+
+    @Override
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findAll();
+
+    // Pagination par clé sur l'index (date, id) : aucune page ne relit les précédentes
+
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findAllByOrderByDateAscIdAsc(Pageable pageable);
+
+    // La borne sur date seule permet un parcours d'intervalle de l'index, le OR ne fait qu'écarter les ex aequo déjà vus
+    @EntityGraph(attributePaths = "teacher")
+    @Query("select s from Session s where s.date >= :date and (s.date > :date or s.id > :id) order by s.date asc, s.id asc")
+    List<Session> findPageAfter(@Param("date") Date date, @Param("id") Long id, Pageable pageable);
+
+    // Séances à venir : parcours d'intervalle de l'index (date, id), déjà dans l'ordre demandé
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findByDateGreaterThanEqualOrderByDateAscIdAsc(Date from);
+
+    // Filtres composés (SessionSpecifications)
+    @Override
+    @EntityGraph(attributePaths = "teacher")
+    List<Session> findAll(Specification<Session> spec, Sort sort);
+
+    // Détail : la séance, son professeur et ses participants en une seule jointure
+    @EntityGraph(attributePaths = {"teacher", "users"})
+    Optional<Session> findWithUsersById(Long id);
+
+    // Couples (session_id, user_id) des séances listées, sans passer par la table USERS
+    @Query(value = "select session_id, user_id from PARTICIPATE where session_id in (:sessionIds)", nativeQuery = true)
+    List<Object[]> findParticipantIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    // Résumés pour l'affichage en liste : un comptage groupé sur PARTICIPATE au lieu des identifiants des participants
+    @Query(value = "select s.id as id, s.name as name, s.date as date, s.teacher_id as teacher_id, count(p.user_id) as participants"
+            + " from SESSIONS s left join PARTICIPATE p on p.session_id = s.id"
+            + " group by s.id, s.name, s.date, s.teacher_id"
+            + " order by s.date asc, s.id asc", nativeQuery = true)
+    List<SessionSummary> findAllSummaries();
+
+    interface SessionSummary {
+        Long getId();
+
+        String getName();
+
+        Date getDate();
+
+        Long getTeacher_id();
+
+        Long getParticipants();
+    }
 }
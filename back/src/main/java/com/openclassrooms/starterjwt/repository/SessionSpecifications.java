@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Filtres composables de la liste des séances, traduits ensemble en une seule requête SQL.
+ * <p>
+ * Seuls des prédicats exploitables par un index sont proposés : égalité sur teacher_id (index de la clé
+ * étrangère), intervalle sur date (idx_sessions_date_id) et préfixe sur name. Le filtre des places libres,
+ * un comptage corrélé sur PARTICIPATE par session_id, ne s'évalue que sur les lignes retenues par les autres.
+ * Chaque fabrique retourne null pour un critère absent, ce que Specification.where / and ignorent.
+ */
+public final class SessionSpecifications {
+    public static final Sort BY_DATE = Sort.by("date", "id");
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private SessionSpecifications() {
+    }
+
+    public static Specification<Session> hasTeacher(Long teacherId) {
+        if (teacherId == null) {
+            return null;
+        }
+        // Comparaison sur la clé étrangère, sans jointure vers TEACHERS
+        return (root, query, cb) -> cb.equal(root.get("teacher").get("id"), teacherId);
+    }
+
+    public static Specification<Session> dateFrom(Date from) {
+        if (from == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    public static Specification<Session> dateBefore(Date to) {
+        if (to == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThan(root.get("date"), to);
+    }
+
+    public static Specification<Session> nameStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        // '!' plutôt que '\' comme caractère d'échappement : MySQL interprète l'antislash dans les littéraux
+        String pattern = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<Session> hasFreeSeats() {
+        // size() devient un sous-comptage sur PARTICIPATE seule, sans jointure vers USERS
+        return (root, query, cb) -> cb.or(
+                cb.isNull(root.get("capacity")),
+                cb.greaterThan(root.<Integer>get("capacity"), cb.size(root.<List<User>>get("users"))));
+    }
+}
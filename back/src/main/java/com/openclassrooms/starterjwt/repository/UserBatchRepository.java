@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.List;
+
+import com.openclassrooms.starterjwt.models.User;
+
+/**
+ * Insertion en masse des utilisateurs : avec des identifiants IDENTITY, Hibernate
+ * n'envoie pas ses INSERT par batch, d'où ce passage direct par JDBC.
+ */
+public interface UserBatchRepository {
+  void insertAll(List<User> users);
+}
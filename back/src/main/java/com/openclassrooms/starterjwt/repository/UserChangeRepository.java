@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.UserChange;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+  List<UserChange> findByIdGreaterThanOrderByIdAsc(Long id);
+
+  Optional<UserChange> findTopByOrderByIdDesc();
+
+  @Transactional
+  long deleteByChangedAtBefore(Date date);
+}
@@ -1,15 +1,83 @@
 package com.openclassrooms.starterjwt.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.openclassrooms.starterjwt.models.User;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-  Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository {
+  // Les recherches par email passent par la colonne email_normalized et son index unique
+
+  Optional<User> findByNormalizedEmail(String normalizedEmail);
+
+  boolean existsByNormalizedEmail(String normalizedEmail);
+
+  default Optional<User> findByEmail(String email) {
+    return findByNormalizedEmail(User.normalizeEmail(email));
+  }
+
+  default Boolean existsByEmail(String email) {
+    return existsByNormalizedEmail(User.normalizeEmail(email));
+  }
+
+  // Parcours complet sans charger d'entités ; sur MySQL, useCursorFetch lit par lots de cette taille
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  Stream<UserEmail> streamAllBy();
+
+  List<UserEmail> findByIdGreaterThanOrderByIdAsc(Long id);
+
+  @Query("select u.normalizedEmail from User u where u.normalizedEmail in :normalizedEmails")
+  List<String> findExistingNormalizedEmails(@Param("normalizedEmails") Collection<String> normalizedEmails);
+
+  @Modifying
+  @Query("update User u set u.password = :password where u.normalizedEmail = :normalizedEmail")
+  int updatePasswordByNormalizedEmail(@Param("normalizedEmail") String normalizedEmail, @Param("password") String password);
+
+  default int updatePasswordByEmail(String email, String password) {
+    return updatePasswordByNormalizedEmail(User.normalizeEmail(email), password);
+  }
+
+  /**
+   * Vrai si la violation porte sur l'une des contraintes d'unicité de l'email (uk_users_email,
+   * uk_users_email_normalized) : un NOT NULL, une longueur ou toute autre contrainte n'est pas un email déjà pris.
+   * Le nom vient de Hibernate lorsqu'il a pu l'extraire, sinon du message du pilote JDBC (insertions par batch).
+   */
+  static boolean isEmailConflict(DataIntegrityViolationException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      String constraint = null;
+      if (cause instanceof ConstraintViolationException) {
+        constraint = ((ConstraintViolationException) cause).getConstraintName();
+      } else if (cause instanceof SQLException) {
+        constraint = cause.getMessage();
+      }
+      if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  interface UserEmail {
+    Long getId();
 
-  Boolean existsByEmail(String email); 
+    String getEmail();
+  }
 }
@@ -0,0 +1,110 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt dont le coût est choisi au démarrage selon la machine.
+ * Un hash stocké sous le plancher, ou nettement sous le coût calibré, est signalé pour être
+ * recalculé lors du prochain login réussi ; un hash plus coûteux n'est jamais recalculé à la baisse.
+ */
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+  private static final Logger logger = LoggerFactory.getLogger(CalibratedPasswordEncoder.class);
+
+  private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+  private static final int PROBE_STRENGTH = 6;
+  private static final int PROBE_RUNS = 3;
+  private static final String PROBE_PASSWORD = "calibration";
+
+  // Écart toléré sous le coût calibré : la calibration varie d'une instance et d'un redémarrage
+  // à l'autre, un écart d'un cran ne doit pas faire recalculer les mêmes hash à chaque login
+  static final int UPGRADE_HYSTERESIS = 1;
+
+  private final int strength;
+
+  private final int minStrength;
+
+  private final BCryptPasswordEncoder delegate;
+
+  public CalibratedPasswordEncoder(int strength) {
+    this(strength, strength);
+  }
+
+  /**
+   * @param minStrength plancher de sécurité : tout hash stocké sous ce coût est recalculé
+   */
+  public CalibratedPasswordEncoder(int strength, int minStrength) {
+    this.strength = strength;
+    this.minStrength = Math.min(minStrength, strength);
+    this.delegate = new BCryptPasswordEncoder(strength);
+  }
+
+  /**
+   * Mesure le temps d'un hash à faible coût puis retient le coût le plus élevé
+   * dont le temps estimé reste sous la cible, dans les bornes données.
+   */
+  public static CalibratedPasswordEncoder forTargetLatency(long targetMs, int minStrength, int maxStrength) {
+    // Premier hash pour laisser le JIT compiler BCrypt avant la mesure
+    BCrypt.hashpw(PROBE_PASSWORD, BCrypt.gensalt(PROBE_STRENGTH));
+
+    long bestNanos = Long.MAX_VALUE;
+    for (int i = 0; i < PROBE_RUNS; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw(PROBE_PASSWORD, BCrypt.gensalt(PROBE_STRENGTH));
+      bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+    }
+
+    int strength = strengthFor(bestNanos / 1_000_000.0, targetMs, minStrength, maxStrength);
+    logger.info("BCrypt strength calibrated to {} (target {} ms)", strength, targetMs);
+
+    return new CalibratedPasswordEncoder(strength, minStrength);
+  }
+
+  static int strengthFor(double probeMs, long targetMs, int minStrength, int maxStrength) {
+    int strength = PROBE_STRENGTH;
+    double estimatedMs = probeMs;
+    // Chaque incrément du coût double le temps de hash
+    while (strength < maxStrength && estimatedMs * 2 <= targetMs) {
+      strength++;
+      estimatedMs *= 2;
+    }
+
+    return Math.max(minStrength, Math.min(strength, maxStrength));
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return delegate.matches(rawPassword, encodedPassword);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+
+    Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+    if (!matcher.matches()) {
+      return false;
+    }
+
+    int storedStrength = Integer.parseInt(matcher.group(2));
+    return storedStrength < minStrength || strength - storedStrength > UPGRADE_HYSTERESIS;
+  }
+}
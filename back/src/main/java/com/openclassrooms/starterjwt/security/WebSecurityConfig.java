@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -25,12 +25,33 @@ import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
     // jsr250Enabled = true,
     prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
+  // Routes accessibles sans authentification ; AuthTokenFilter ne traite pas le token sur ces routes
+  public static final String[] PUBLIC_PATHS = {
+      "/api/auth/**",
+      "/.well-known/jwks.json",
+      "/actuator/health",
+      "/actuator/health/**"
+  };
+
   @Autowired
   UserDetailsServiceImpl userDetailsService;
 
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  // Coût BCrypt imposé ; 0 = calibré au démarrage selon bcryptTargetMs
+  @Value("${oc.app.bcryptStrength:0}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.bcryptTargetMs:250}")
+  private long bcryptTargetMs;
+
+  @Value("${oc.app.bcryptMinStrength:10}")
+  private int bcryptMinStrength;
+
+  @Value("${oc.app.bcryptMaxStrength:14}")
+  private int bcryptMaxStrength;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +70,10 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    if (bcryptStrength > 0) {
+      return new CalibratedPasswordEncoder(bcryptStrength);
+    }
+    return CalibratedPasswordEncoder.forTargetLatency(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
   }
 
   @Override
@@ -57,7 +81,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     http.cors().and().csrf().disable()
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
-      .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .authorizeRequests().antMatchers(PUBLIC_PATHS).permitAll()
+      // Métriques (cache des tokens, logins, refus) réservées aux administrateurs ; health reste public
+      .antMatchers("/actuator/**").hasRole("ADMIN")
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
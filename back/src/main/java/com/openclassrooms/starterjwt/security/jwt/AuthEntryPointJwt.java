@@ -1,43 +1,76 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+/**
+ * Réponse 401 sérialisée par un ObjectWriter partagé, construit une seule fois : aucune Map ni
+ * ObjectMapper n'est créé par requête, ce qui compte lorsque des robots martèlent les URLs protégées.
+ * Le refus passe par le SecurityEventRecorder, qui le compte toujours mais n'en journalise qu'un échantillon.
+ */
 @Component
 public class AuthEntryPointJwt implements AuthenticationEntryPoint {
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
+  // Le flux appartient au conteneur de servlets : il le ferme lui-même
+  private static final ObjectWriter WRITER = new ObjectMapper()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      .writerFor(ErrorBody.class);
+
+  private final SecurityEventRecorder securityEvents;
+
+  public AuthEntryPointJwt(SecurityEventRecorder securityEvents) {
+    this.securityEvents = securityEvents;
+  }
 
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
+    securityEvents.record(SecurityEventRecorder.Reason.UNAUTHORIZED,
+        request.getServletPath() + ": " + authException.getMessage());
 
     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
 
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
-
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+    WRITER.writeValue(response.getOutputStream(), new ErrorBody(authException.getMessage(), request.getServletPath()));
   }
 
+  @JsonPropertyOrder({ "status", "error", "message", "path" })
+  static final class ErrorBody {
+    private final String message;
+    private final String path;
+
+    ErrorBody(String message, String path) {
+      this.message = message;
+      this.path = path;
+    }
+
+    public int getStatus() {
+      return HttpServletResponse.SC_UNAUTHORIZED;
+    }
+
+    public String getError() {
+      return "Unauthorized";
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public String getPath() {
+      return path;
+    }
+  }
 }
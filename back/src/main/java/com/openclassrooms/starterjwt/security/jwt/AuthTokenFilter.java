@@ -1,68 +1,155 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.util.StringUtils;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.WebSecurityConfig;
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
+  // Compilé une seule fois : un en-tête Authorization périmé sur une route publique
+  // ne doit provoquer ni parsing, ni log d'erreur, ni accès en base
+  private static final RequestMatcher PUBLIC_ROUTES = new OrRequestMatcher(
+      Arrays.stream(WebSecurityConfig.PUBLIC_PATHS)
+          .<RequestMatcher>map(AntPathRequestMatcher::new)
+          .collect(Collectors.toList()));
+
   @Autowired
   private JwtUtils jwtUtils;
 
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private VerifiedTokenCache tokenCache;
+
+  @Autowired
+  private TokenRevocationService tokenRevocationService;
+
+  @Autowired
+  private SecurityEventRecorder securityEvents;
+
+  // Intervalle entre deux vérifications en base d'un même token (0 = jamais) ;
+  // l'instant de la dernière vérification est porté par l'entrée du cache, bornée comme lui
+  @Value("${oc.app.jwtDbCheckMinutes:15}")
+  private int jwtDbCheckMinutes;
+
+  @Value("${oc.app.jwtExpirationMs}")
+  private int jwtExpirationMs;
+
+  /**
+   * La vérification est comptée depuis l'émission du token : un intervalle qui n'est pas plus court
+   * que sa durée de vie ne se déclencherait jamais avant son expiration.
+   */
+  @PostConstruct
+  void checkDbCheckInterval() {
+    if (jwtDbCheckMinutes > 0 && TimeUnit.MINUTES.toMillis(jwtDbCheckMinutes) >= jwtExpirationMs) {
+      throw new IllegalStateException("oc.app.jwtDbCheckMinutes (" + jwtDbCheckMinutes
+          + " min) must be shorter than oc.app.jwtExpirationMs (" + jwtExpirationMs + " ms)");
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    return PUBLIC_ROUTES.matches(request);
+  }
 
   @Override
-  protected void doFilterInternal(@NonNull HttpServletRequest request, 
-                                 @NonNull HttpServletResponse response, 
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                 @NonNull HttpServletResponse response,
                                  @NonNull FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        UsernamePasswordAuthenticationToken authentication =
-            new UsernamePasswordAuthenticationToken(
-                userDetails,
-                null,
-                userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+      if (jwt != null) {
+        // La révocation est contrôlée à chaque requête, y compris pour un token en cache
+        VerifiedTokenCache.Entry cached = tokenCache.get(jwt);
+        UsernamePasswordAuthenticationToken authentication;
+        if (cached != null
+            && !tokenRevocationService.isRevoked(cached.getTokenId())
+            && !isDbCheckDue(cached.getCheckedAt())) {
+          authentication = cached.getAuthentication();
+        } else {
+          authentication = authenticate(jwt);
+        }
+
+        if (authentication != null) {
+          SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      securityEvents.record(SecurityEventRecorder.Reason.AUTHENTICATION_ERROR, "Cannot set user authentication", e);
     }
 
     filterChain.doFilter(request, response);
   }
 
-  private String parseJwt(HttpServletRequest request) {
-    String headerAuth = request.getHeader("Authorization");
+  private UsernamePasswordAuthenticationToken authenticate(String jwt) {
+    JwtVerification verification = jwtUtils.verify(jwt);
+    if (!verification.isValid()) {
+      return null;
+    }
+
+    Claims claims = verification.getClaims();
+    if (tokenRevocationService.isRevoked(claims.getId())) {
+      securityEvents.record(SecurityEventRecorder.Reason.REVOKED, "token " + claims.getId() + " of " + claims.getSubject());
+      tokenCache.invalidate(jwt);
+      return null;
+    }
+
+    String username = claims.getSubject();
 
-    if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-      return headerAuth.substring(7, headerAuth.length());
+    // Les claims ont été lues en base à l'émission du token : elles valent vérification à cette date
+    Date issuedAt = claims.getIssuedAt();
+    long checkedAt = issuedAt != null ? issuedAt.getTime() : 0L;
+
+    UserDetails userDetails = jwtUtils.getUserDetailsFromClaims(claims);
+    if (userDetails == null || isDbCheckDue(checkedAt)) {
+      // Ancien token sans claims, ou vérification périodique (utilisateur supprimé entre temps)
+      userDetails = userDetailsService.loadUserByUsername(username);
+      checkedAt = System.currentTimeMillis();
     }
 
-    return null;
+    // Partagée entre les requêtes via le cache : elle n'est jamais modifiée après sa création
+    UsernamePasswordAuthenticationToken authentication =
+        new UsernamePasswordAuthenticationToken(
+            userDetails,
+            null,
+            userDetails.getAuthorities());
+    tokenCache.put(jwt, authentication, claims.getId(), claims.getExpiration(), checkedAt);
+
+    return authentication;
+  }
+
+  private boolean isDbCheckDue(long checkedAt) {
+    return jwtDbCheckMinutes > 0
+        && System.currentTimeMillis() - checkedAt >= TimeUnit.MINUTES.toMillis(jwtDbCheckMinutes);
+  }
+
+  private String parseJwt(HttpServletRequest request) {
+    return JwtUtils.parseBearerToken(request.getHeader("Authorization"));
   }
 }
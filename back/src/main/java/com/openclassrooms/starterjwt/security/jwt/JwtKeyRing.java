@@ -0,0 +1,190 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Clés RSA de signature des tokens, identifiées par leur "kid".
+ * <p>
+ * oc.app.jwtSigningKeys liste des entrées "kid:clé privée PKCS#8 en Base64" ; la première signe
+ * les nouveaux tokens, les suivantes ne servent plus qu'à vérifier. oc.app.jwtVerificationKeys
+ * accepte en plus des clés publiques X.509 seules ("kid:Base64"). Une rotation consiste à placer
+ * la nouvelle clé en tête, puis à retirer l'ancienne une fois ses tokens expirés.
+ * <p>
+ * Sans clé configurée, le démarrage échoue : une clé éphémère propre à chaque instance rendrait
+ * les tokens invalides d'une instance à l'autre et après chaque redémarrage. Seuls les profils
+ * "dev" et "test" l'acceptent.
+ * <p>
+ * Les clés sont chargées une fois au démarrage ; les clés publiques et le JWKS sont construits
+ * une seule fois et partagés en lecture seule.
+ */
+@Component
+public class JwtKeyRing {
+  private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+  private static final int GENERATED_KEY_SIZE = 2048;
+
+  private static final Profiles EPHEMERAL_KEY_PROFILES = Profiles.of("dev", "test");
+
+  private final String signingKid;
+
+  private final PrivateKey signingKey;
+
+  private final Map<String, PublicKey> verificationKeys;
+
+  private final Map<String, Object> jwks;
+
+  @Autowired
+  public JwtKeyRing(@Value("${oc.app.jwtSigningKeys:}") String signingKeys,
+                    @Value("${oc.app.jwtVerificationKeys:}") String verificationKeys,
+                    Environment environment) {
+    this(signingKeys, verificationKeys, environment.acceptsProfiles(EPHEMERAL_KEY_PROFILES));
+  }
+
+  public JwtKeyRing(String signingKeys, String verificationKeys, boolean ephemeralKeyAllowed) {
+    Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+    List<String[]> signingEntries = entries(signingKeys);
+    if (signingEntries.isEmpty() && !ephemeralKeyAllowed) {
+      throw new IllegalStateException("No oc.app.jwtSigningKeys configured (JWT_SIGNING_KEYS); "
+          + "an ephemeral key is only allowed with the dev or test profile");
+    }
+
+    try {
+      KeyFactory rsa = KeyFactory.getInstance("RSA");
+
+      if (signingEntries.isEmpty()) {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(GENERATED_KEY_SIZE);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        signingKid = UUID.randomUUID().toString();
+        signingKey = keyPair.getPrivate();
+        publicKeys.put(signingKid, keyPair.getPublic());
+        logger.warn("No oc.app.jwtSigningKeys configured: signing with an ephemeral RSA key, "
+            + "tokens will not survive a restart");
+      } else {
+        PrivateKey active = null;
+        for (String[] entry : signingEntries) {
+          PrivateKey privateKey = rsa.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(entry[1])));
+          publicKeys.put(entry[0], publicKeyOf(rsa, privateKey));
+          if (active == null) {
+            active = privateKey;
+          }
+        }
+        signingKid = signingEntries.get(0)[0];
+        signingKey = active;
+      }
+
+      for (String[] entry : entries(verificationKeys)) {
+        publicKeys.putIfAbsent(entry[0], rsa.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(entry[1]))));
+      }
+    } catch (GeneralSecurityException | IllegalArgumentException e) {
+      throw new IllegalStateException("Invalid JWT key configuration", e);
+    }
+
+    this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+    this.jwks = buildJwks(publicKeys);
+    logger.info("JWT key ring loaded: signing kid {}, {} verification key(s)", signingKid, publicKeys.size());
+  }
+
+  public String getSigningKid() {
+    return signingKid;
+  }
+
+  public PrivateKey getSigningKey() {
+    return signingKey;
+  }
+
+  /**
+   * Clé publique associée au kid, ou null si ce kid est inconnu.
+   */
+  public PublicKey getVerificationKey(String kid) {
+    return kid != null ? verificationKeys.get(kid) : null;
+  }
+
+  /**
+   * Document JWKS (RFC 7517) des clés de vérification, pour les services qui valident nos tokens.
+   */
+  public Map<String, Object> getJwks() {
+    return jwks;
+  }
+
+  private static PublicKey publicKeyOf(KeyFactory rsa, PrivateKey privateKey) throws GeneralSecurityException {
+    if (!(privateKey instanceof RSAPrivateCrtKey)) {
+      throw new GeneralSecurityException("RSA private key must include its CRT parameters");
+    }
+
+    RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey) privateKey;
+    return rsa.generatePublic(new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+  }
+
+  private static Map<String, Object> buildJwks(Map<String, PublicKey> publicKeys) {
+    List<Map<String, Object>> keys = new ArrayList<>();
+    for (Map.Entry<String, PublicKey> entry : publicKeys.entrySet()) {
+      RSAPublicKey publicKey = (RSAPublicKey) entry.getValue();
+
+      Map<String, Object> jwk = new LinkedHashMap<>();
+      jwk.put("kty", "RSA");
+      jwk.put("use", "sig");
+      jwk.put("alg", "RS256");
+      jwk.put("kid", entry.getKey());
+      jwk.put("n", base64Url(publicKey.getModulus()));
+      jwk.put("e", base64Url(publicKey.getPublicExponent()));
+      keys.add(Collections.unmodifiableMap(jwk));
+    }
+
+    return Collections.singletonMap("keys", Collections.unmodifiableList(keys));
+  }
+
+  // Entier non signé, sans l'octet de signe ajouté par BigInteger
+  private static String base64Url(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+    byte[] unsigned = new byte[bytes.length - offset];
+    System.arraycopy(bytes, offset, unsigned, 0, unsigned.length);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+  }
+
+  private static List<String[]> entries(String value) {
+    List<String[]> entries = new ArrayList<>();
+    if (!StringUtils.hasText(value)) {
+      return entries;
+    }
+
+    for (String item : value.split(",")) {
+      String trimmed = item.trim();
+      int separator = trimmed.indexOf(':');
+      if (separator <= 0) {
+        throw new IllegalStateException("JWT key entries must be formatted as kid:base64");
+      }
+      entries.add(new String[] { trimmed.substring(0, separator), trimmed.substring(separator + 1) });
+    }
+    return entries;
+  }
+}
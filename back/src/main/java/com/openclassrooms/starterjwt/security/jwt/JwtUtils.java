@@ -1,12 +1,16 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
@@ -14,46 +18,138 @@ import io.jsonwebtoken.*;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  static final String CLAIM_ID = "id";
+  static final String CLAIM_FIRST_NAME = "firstName";
+  static final String CLAIM_LAST_NAME = "lastName";
+  static final String CLAIM_ADMIN = "admin";
+
+  private static final String BEARER_PREFIX = "Bearer ";
 
-  @Value("${oc.app.jwtSecret}")
-  private String jwtSecret;
+  @Autowired
+  private SecurityEventRecorder securityEvents;
+
+  @Autowired
+  private JwtKeyRing keyRing;
 
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
-  public String generateJwtToken(Authentication authentication) {
+  // Configuré une fois pour toutes : il n'est plus modifié après init(), ce qui permet de le
+  // partager entre les threads ; la clé de chaque kid est résolue dans le trousseau déjà chargé
+  private JwtParser jwtParser;
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+  @PostConstruct
+  public void init() {
+    jwtParser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+      @Override
+      @SuppressWarnings("rawtypes")
+      public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return resolveKey(header);
+      }
+    });
+  }
 
+  public String generateJwtToken(Authentication authentication) {
+    return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+  }
+
+  public String generateJwtToken(UserDetailsImpl userPrincipal) {
     return Jwts.builder()
+        .setHeaderParam(JwsHeader.KEY_ID, keyRing.getSigningKid())
+        .setId(UUID.randomUUID().toString())
         .setSubject((userPrincipal.getUsername()))
+        .claim(CLAIM_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .signWith(SignatureAlgorithm.RS256, keyRing.getSigningKey())
         .compact();
   }
 
+  /**
+   * Extrait le token d'un en-tête "Authorization: Bearer ...", ou null.
+   */
+  public static String parseBearerToken(String headerAuth) {
+    if (StringUtils.hasText(headerAuth) && headerAuth.startsWith(BEARER_PREFIX)) {
+      return headerAuth.substring(BEARER_PREFIX.length());
+    }
+
+    return null;
+  }
+
+  /**
+   * Clé de vérification imposée par le kid et l'algorithme attendu, jamais par le seul en-tête :
+   * un token ne peut pas faire vérifier une signature HMAC avec une clé publique.
+   */
+  @SuppressWarnings("rawtypes")
+  private Key resolveKey(JwsHeader header) {
+    String kid = header.getKeyId();
+    if (kid == null) {
+      throw new SignatureException("JWT has no key id");
+    }
+
+    if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+      throw new UnsupportedJwtException("Unexpected JWT algorithm " + header.getAlgorithm() + " for key " + kid);
+    }
+
+    Key key = keyRing.getVerificationKey(kid);
+    if (key == null) {
+      throw new SignatureException("Unknown JWT key id " + kid);
+    }
+    return key;
+  }
+
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
+  }
+
+  /**
+   * Reconstruit le principal à partir des claims d'un token déjà vérifié.
+   * Retourne null pour les anciens tokens qui ne portent que le sujet.
+   */
+  public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+    Object id = claims.get(CLAIM_ID);
+    if (!(id instanceof Number)) {
+      return null;
+    }
+
+    return UserDetailsImpl
+            .builder()
+            .id(((Number) id).longValue())
+            .username(claims.getSubject())
+            .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+            .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+            .admin(Boolean.TRUE.equals(claims.get(CLAIM_ADMIN)))
+            .build();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return verify(authToken).isValid();
+  }
+
+  /**
+   * Vérifie la signature et l'expiration du token en une seule passe.
+   */
+  public JwtVerification verify(String token) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return JwtVerification.valid(jwtParser.parseClaimsJws(token).getBody());
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      securityEvents.record(SecurityEventRecorder.Reason.INVALID_SIGNATURE, e.getMessage());
+      return JwtVerification.failure(JwtVerification.Status.INVALID_SIGNATURE);
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      securityEvents.record(SecurityEventRecorder.Reason.MALFORMED, e.getMessage());
+      return JwtVerification.failure(JwtVerification.Status.MALFORMED);
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      securityEvents.record(SecurityEventRecorder.Reason.EXPIRED, e.getMessage());
+      return JwtVerification.failure(JwtVerification.Status.EXPIRED);
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      securityEvents.record(SecurityEventRecorder.Reason.UNSUPPORTED, e.getMessage());
+      return JwtVerification.failure(JwtVerification.Status.UNSUPPORTED);
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      securityEvents.record(SecurityEventRecorder.Reason.EMPTY, e.getMessage());
+      return JwtVerification.failure(JwtVerification.Status.EMPTY);
     }
-
-    return false;
   }
 }
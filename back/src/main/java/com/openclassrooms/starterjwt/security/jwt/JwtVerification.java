@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Résultat d'une vérification de token : les claims si le token est valide,
+ * sinon la raison typée de l'échec.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class JwtVerification {
+
+  public enum Status {
+    VALID,
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY
+  }
+
+  private final Status status;
+
+  private final Claims claims;
+
+  public static JwtVerification valid(Claims claims) {
+    return new JwtVerification(Status.VALID, claims);
+  }
+
+  public static JwtVerification failure(Status status) {
+    return new JwtVerification(status, null);
+  }
+
+  public boolean isValid() {
+    return status == Status.VALID;
+  }
+}
@@ -0,0 +1,135 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Événements de sécurité liés aux tokens refusés : chaque événement est compté par motif,
+ * mais seuls les premiers de chaque fenêtre sont journalisés, puis un sur N au-delà du quota.
+ * Une vague de tokens expirés n'inonde donc plus les logs tout en y restant représentée
+ * jusqu'à la fin de la fenêtre, et le nombre d'événements masqués est rappelé à la fenêtre suivante.
+ */
+@Component
+public class SecurityEventRecorder implements MeterBinder {
+  private static final Logger logger = LoggerFactory.getLogger(SecurityEventRecorder.class);
+
+  public enum Reason {
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY,
+    REVOKED,
+    AUTHENTICATION_ERROR,
+    // Requête sans authentification valide sur une route protégée (réponse 401)
+    UNAUTHORIZED
+  }
+
+  private final int maxLogsPerWindow;
+  private final long windowMs;
+  // Au-delà du quota, un événement sur sampleEvery est encore journalisé (0 = aucun)
+  private final int sampleEvery;
+
+  private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+
+  public SecurityEventRecorder(@Value("${oc.app.securityLogMaxPerWindow:10}") int maxLogsPerWindow,
+                               @Value("${oc.app.securityLogWindowMs:60000}") long windowMs,
+                               @Value("${oc.app.securityLogSampleEvery:100}") int sampleEvery) {
+    this.maxLogsPerWindow = maxLogsPerWindow;
+    this.windowMs = windowMs;
+    this.sampleEvery = sampleEvery;
+    for (Reason reason : Reason.values()) {
+      counters.put(reason, new Counter());
+    }
+  }
+
+  public void record(Reason reason, String detail) {
+    record(reason, detail, null);
+  }
+
+  /**
+   * L'exception n'est journalisée (avec sa pile) que si l'événement fait partie de l'échantillon.
+   */
+  public void record(Reason reason, String detail, Throwable cause) {
+    Counter counter = counters.get(reason);
+    counter.total.increment();
+
+    long suppressedBefore = counter.openWindow(System.currentTimeMillis(), windowMs);
+    long rank = counter.logged.incrementAndGet();
+    if (rank > maxLogsPerWindow) {
+      long overQuota = rank - maxLogsPerWindow;
+      if (sampleEvery <= 0 || overQuota % sampleEvery != 0) {
+        counter.suppressed.increment();
+        return;
+      }
+      logger.warn("JWT rejected ({}): {} [sampled 1/{} over quota]", reason, detail, sampleEvery, cause);
+      return;
+    }
+
+    if (suppressedBefore > 0) {
+      logger.warn("JWT rejected ({}): {} [{} similar events not logged]", reason, detail, suppressedBefore, cause);
+    } else {
+      logger.warn("JWT rejected ({}): {}", reason, detail, cause);
+    }
+  }
+
+  public long getCount(Reason reason) {
+    return counters.get(reason).total.sum();
+  }
+
+  public long getSuppressedCount(Reason reason) {
+    return counters.get(reason).suppressedTotal.sum() + counters.get(reason).suppressed.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Map.Entry<Reason, Counter> entry : counters.entrySet()) {
+      String reason = entry.getKey().name().toLowerCase();
+      Counter counter = entry.getValue();
+      FunctionCounter.builder("security.jwt.rejected", counter.total, LongAdder::doubleValue)
+          .tag("reason", reason)
+          .register(registry);
+      FunctionCounter.builder("security.jwt.rejected.unlogged", counter, c -> c.suppressedTotal.sum() + c.suppressed.sum())
+          .tag("reason", reason)
+          .register(registry);
+    }
+  }
+
+  private static final class Counter {
+    private final LongAdder total = new LongAdder();
+
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong logged = new AtomicLong();
+
+    // Événements masqués dans la fenêtre courante, puis cumulés à sa fermeture
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder suppressedTotal = new LongAdder();
+
+    /**
+     * Ouvre une nouvelle fenêtre si la précédente est écoulée (un seul thread y parvient)
+     * et retourne le nombre d'événements masqués dans celle qui se termine.
+     */
+    private long openWindow(long now, long windowMs) {
+      long start = windowStart.get();
+      if (now - start < windowMs || !windowStart.compareAndSet(start, now)) {
+        return 0;
+      }
+
+      long previouslySuppressed = suppressed.sumThenReset();
+      suppressedTotal.add(previouslySuppressed);
+      logged.set(0);
+      return previouslySuppressed;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache borné des authentifications déjà vérifiées, indexé par l'empreinte SHA-256 du token.
+ * Chaque entrée expire à la date "exp" du token qu'elle représente.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+  private static final long PURGE_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private final int maxSize;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong lastPurge = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public VerifiedTokenCache(@Value("${oc.app.jwtCacheMaxSize:10000}") int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public Entry get(String token) {
+    String key = digest(token);
+    Entry entry = entries.get(key);
+
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    if (entry.isExpired(System.currentTimeMillis())) {
+      if (entries.remove(key, entry)) {
+        evictions.increment();
+      }
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return entry;
+  }
+
+  public void put(String token, UsernamePasswordAuthenticationToken authentication, String tokenId, Date expiration,
+      long checkedAt) {
+    if (maxSize <= 0 || expiration == null) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    if (entries.size() >= maxSize) {
+      purgeExpired(now);
+    }
+    // Toujours plein : on libère une entrée arbitraire plutôt que de verrouiller la map
+    if (entries.size() >= maxSize) {
+      Iterator<String> keys = entries.keySet().iterator();
+      if (keys.hasNext()) {
+        keys.next();
+        keys.remove();
+        evictions.increment();
+      }
+    }
+
+    entries.put(digest(token), new Entry(authentication, tokenId, expiration.getTime(), checkedAt));
+  }
+
+  public void invalidate(String token) {
+    entries.remove(digest(token));
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("jwt.cache.hits", hits, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("jwt.cache.misses", misses, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("jwt.cache.evictions", evictions, LongAdder::doubleValue).register(registry);
+    Gauge.builder("jwt.cache.size", entries, Map::size).register(registry);
+  }
+
+  private void purgeExpired(long now) {
+    long last = lastPurge.get();
+    // Un seul thread balaie la map, et au plus une fois par intervalle
+    if (now - last < PURGE_INTERVAL_MS || !lastPurge.compareAndSet(last, now)) {
+      return;
+    }
+
+    Iterator<Entry> values = entries.values().iterator();
+    while (values.hasNext()) {
+      if (values.next().isExpired(now)) {
+        values.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  private static String digest(String token) {
+    MessageDigest sha256 = SHA_256.get();
+    sha256.reset();
+    return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Authentification en cache, avec l'identifiant (jti) du token pour contrôler sa révocation
+   * et l'instant où l'utilisateur a été vérifié en base pour la dernière fois.
+   */
+  public static final class Entry {
+    private final UsernamePasswordAuthenticationToken authentication;
+    private final String tokenId;
+    private final long expiresAt;
+    private final long checkedAt;
+
+    public Entry(UsernamePasswordAuthenticationToken authentication, String tokenId, long expiresAt, long checkedAt) {
+      this.authentication = authentication;
+      this.tokenId = tokenId;
+      this.expiresAt = expiresAt;
+      this.checkedAt = checkedAt;
+    }
+
+    public UsernamePasswordAuthenticationToken getAuthentication() {
+      return authentication;
+    }
+
+    public String getTokenId() {
+      return tokenId;
+    }
+
+    public long getCheckedAt() {
+      return checkedAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
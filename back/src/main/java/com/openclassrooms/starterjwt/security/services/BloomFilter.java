@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom sans verrou : "false" est une réponse sûre, "true" doit être confirmé.
+ * Les bits ne sont jamais effacés ; pour retirer des valeurs, reconstruire un nouveau filtre.
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashFunctions;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int n = Math.max(1, expectedInsertions);
+    long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int wordCount = (int) Math.max(1, (bits + 63) >>> 6);
+
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount << 6;
+    this.hashFunctions = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+  }
+
+  public void put(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashFunctions; i++) {
+      long index = index(h1, h2, i);
+      long mask = 1L << index;
+      words.getAndAccumulate((int) (index >>> 6), mask, (current, bit) -> current | bit);
+    }
+  }
+
+  public boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashFunctions; i++) {
+      long index = index(h1, h2, i);
+      if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getHashFunctions() {
+    return hashFunctions;
+  }
+
+  public long getBitCount() {
+    return bitCount;
+  }
+
+  // Double hachage (Kirsch-Mitzenmacher) : k positions à partir d'un seul hash 64 bits
+  private long index(int h1, int h2, int i) {
+    int combined = h1 + i * h2;
+    if (combined < 0) {
+      combined = ~combined;
+    }
+    return combined % bitCount;
+  }
+
+  // FNV-1a 64 bits sur les octets UTF-8, suivi du mélange final de MurmurHash3
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
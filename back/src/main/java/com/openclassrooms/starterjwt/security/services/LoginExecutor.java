@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Pool dédié et borné pour la vérification des mots de passe (BCrypt) au login.
+ * Lorsque le pool et sa file sont pleins, la tâche est rejetée immédiatement
+ * au lieu d'occuper un thread Tomcat supplémentaire.
+ */
+@Component
+public class LoginExecutor implements MeterBinder {
+
+  private final ThreadPoolExecutor executor;
+
+  private final int retryAfterSeconds;
+
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder verifications = new LongAdder();
+  private final LongAdder verificationNanos = new LongAdder();
+
+  public LoginExecutor(@Value("${oc.app.loginThreads:0}") int threads,
+                       @Value("${oc.app.loginQueueCapacity:50}") int queueCapacity,
+                       @Value("${oc.app.loginRetryAfterSeconds:1}") int retryAfterSeconds) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+        60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "login-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  /**
+   * Exécute la tâche sur le pool de login et attend son résultat.
+   *
+   * @throws RejectedExecutionException si le pool et sa file sont pleins
+   */
+  public <T> T execute(Supplier<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long start = System.nanoTime();
+        try {
+          return task.get();
+        } finally {
+          verificationNanos.add(System.nanoTime() - start);
+          verifications.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw e;
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Login interrupted", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  public int getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("auth.login.queue.depth", executor, e -> e.getQueue().size()).register(registry);
+    Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+    FunctionCounter.builder("auth.login.rejected", rejected, LongAdder::doubleValue).register(registry);
+    FunctionTimer.builder("auth.login.verification", this,
+            e -> e.verifications.sum(),
+            e -> e.verificationNanos.sum(),
+            TimeUnit.NANOSECONDS)
+        .description("Time spent verifying credentials (user lookup and password hash) on the login pool")
+        .register(registry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
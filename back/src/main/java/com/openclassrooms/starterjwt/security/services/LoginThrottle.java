@@ -0,0 +1,214 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Compteurs d'échecs de login par email et par IP, avec délai exponentiel.
+ * Le seuil de l'IP est plus haut que celui de l'email : une même IP peut porter
+ * plusieurs utilisateurs légitimes (NAT, proxy d'entreprise).
+ * Les compteurs sont répartis sur plusieurs segments verrouillés séparément,
+ * chacun borné en LRU ; un compteur sans nouvel échec pendant la fenêtre
+ * de décroissance est oublié.
+ */
+@Component
+public class LoginThrottle implements MeterBinder {
+
+  private static final int STRIPES = 16;
+
+  private final int failureThreshold;
+  private final int ipFailureThreshold;
+  private final long backoffBaseMs;
+  private final long backoffMaxMs;
+  private final long decayMs;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder throttled = new LongAdder();
+
+  public LoginThrottle(@Value("${oc.app.loginFailureThreshold:5}") int failureThreshold,
+                       @Value("${oc.app.loginIpFailureThreshold:20}") int ipFailureThreshold,
+                       @Value("${oc.app.loginBackoffBaseMs:1000}") long backoffBaseMs,
+                       @Value("${oc.app.loginBackoffMaxMs:900000}") long backoffMaxMs,
+                       @Value("${oc.app.loginFailureDecayMs:900000}") long decayMs,
+                       @Value("${oc.app.loginThrottleMaxEntries:100000}") int maxEntries) {
+    this.failureThreshold = failureThreshold;
+    this.ipFailureThreshold = ipFailureThreshold;
+    this.backoffBaseMs = backoffBaseMs;
+    this.backoffMaxMs = backoffMaxMs;
+    this.decayMs = decayMs;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(Math.max(1, maxEntries / STRIPES));
+    }
+  }
+
+  /**
+   * Retourne le délai restant avant d'accepter une nouvelle tentative (0 si autorisée).
+   * Une tentative refusée est comptée comme "throttled", pas comme un échec.
+   */
+  public long retryAfterMillis(String email, String clientIp) {
+    long now = System.currentTimeMillis();
+    long remaining = Math.max(remainingBlock(emailKey(email), now), remainingBlock(ipKey(clientIp), now));
+
+    if (remaining > 0) {
+      throttled.increment();
+    }
+    return remaining;
+  }
+
+  public void recordFailure(String email, String clientIp) {
+    long now = System.currentTimeMillis();
+    failures.increment();
+    recordFailure(emailKey(email), failureThreshold, now);
+    recordFailure(ipKey(clientIp), ipFailureThreshold, now);
+  }
+
+  /**
+   * Un login réussi efface le compteur de l'email et divise par deux celui de l'IP :
+   * un compte valide ne suffit pas à effacer d'un coup les échecs accumulés depuis cette IP.
+   */
+  public void recordSuccess(String email, String clientIp) {
+    String key = emailKey(email);
+    if (key != null) {
+      Stripe stripe = stripeFor(key);
+      synchronized (stripe) {
+        stripe.remove(key);
+      }
+    }
+
+    decayIp(ipKey(clientIp));
+  }
+
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  public long getThrottledCount() {
+    return throttled.sum();
+  }
+
+  public int trackedKeys() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("auth.login.failures", failures, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("auth.login.throttled", throttled, LongAdder::doubleValue).register(registry);
+    Gauge.builder("auth.login.throttle.keys", this, LoginThrottle::trackedKeys).register(registry);
+  }
+
+  private long remainingBlock(String key, long now) {
+    if (key == null) {
+      return 0;
+    }
+
+    Stripe stripe = stripeFor(key);
+    synchronized (stripe) {
+      FailureRecord record = stripe.get(key);
+      if (record == null) {
+        return 0;
+      }
+      if (now - record.lastFailure >= decayMs) {
+        stripe.remove(key);
+        return 0;
+      }
+      return Math.max(0, record.blockedUntil - now);
+    }
+  }
+
+  private void decayIp(String key) {
+    if (key == null) {
+      return;
+    }
+
+    Stripe stripe = stripeFor(key);
+    synchronized (stripe) {
+      FailureRecord record = stripe.get(key);
+      if (record == null) {
+        return;
+      }
+
+      record.failures /= 2;
+      if (record.failures == 0) {
+        stripe.remove(key);
+      } else if (record.failures < ipFailureThreshold) {
+        record.blockedUntil = 0;
+      }
+    }
+  }
+
+  private void recordFailure(String key, int threshold, long now) {
+    if (key == null) {
+      return;
+    }
+
+    Stripe stripe = stripeFor(key);
+    synchronized (stripe) {
+      FailureRecord record = stripe.get(key);
+      if (record == null || now - record.lastFailure >= decayMs) {
+        record = new FailureRecord();
+        stripe.put(key, record);
+      }
+
+      record.failures++;
+      record.lastFailure = now;
+      if (record.failures >= threshold) {
+        // Le délai double à chaque échec au-delà du seuil
+        int exponent = Math.min(record.failures - threshold, 30);
+        record.blockedUntil = now + Math.min(backoffMaxMs, backoffBaseMs << exponent);
+      }
+    }
+  }
+
+  private Stripe stripeFor(String key) {
+    return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+  }
+
+  private static String emailKey(String email) {
+    return email != null ? "email:" + email.trim().toLowerCase(Locale.ROOT) : null;
+  }
+
+  private static String ipKey(String clientIp) {
+    return clientIp != null ? "ip:" + clientIp : null;
+  }
+
+  private static final class FailureRecord {
+    private int failures;
+    private long lastFailure;
+    private long blockedUntil;
+  }
+
+  private static final class Stripe extends LinkedHashMap<String, FailureRecord> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+
+    private Stripe(int maxEntries) {
+      super(16, 0.75f, true);
+      this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, FailureRecord> eldest) {
+      return size() > maxEntries;
+    }
+  }
+}
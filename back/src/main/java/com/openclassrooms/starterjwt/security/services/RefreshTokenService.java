@@ -0,0 +1,150 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+
+/**
+ * Refresh tokens opaques à usage unique : chaque rafraîchissement remplace le token présenté.
+ * Les tokens sont aléatoires (256 bits), un simple SHA-256 suffit donc à les stocker :
+ * aucun appel au PasswordEncoder n'est nécessaire.
+ */
+@Service
+public class RefreshTokenService {
+  private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+  private static final int TOKEN_BYTES = 32;
+
+  private final SecureRandom random = new SecureRandom();
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final long refreshExpirationMs;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                             @Value("${oc.app.jwtRefreshExpirationMs:1209600000}") long refreshExpirationMs) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.refreshExpirationMs = refreshExpirationMs;
+  }
+
+  /**
+   * Ouvre une nouvelle chaîne de rotation pour l'utilisateur (à chaque login).
+   */
+  @Transactional
+  public String issue(Long userId) {
+    return create(userId, UUID.randomUUID().toString());
+  }
+
+  /**
+   * Consomme le token présenté et en retourne un nouveau de la même chaîne.
+   * Un token déjà consommé signale un vol probable : toute la chaîne est révoquée.
+   */
+  @Transactional
+  public Optional<Rotation> rotate(String presentedToken) {
+    if (presentedToken == null) {
+      return Optional.empty();
+    }
+
+    Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(presentedToken));
+    if (!stored.isPresent() || stored.get().getExpiresAt().before(new Date())) {
+      return Optional.empty();
+    }
+
+    RefreshToken token = stored.get();
+    if (token.isRevoked()) {
+      logger.warn("Refresh token reuse detected for user {}, revoking family {}", token.getUserId(), token.getFamilyId());
+      refreshTokenRepository.revokeFamily(token.getFamilyId());
+      return Optional.empty();
+    }
+
+    token.setRevoked(true);
+    return Optional.of(new Rotation(token.getUserId(), create(token.getUserId(), token.getFamilyId())));
+  }
+
+  /**
+   * Révoque toute la chaîne du token présenté (déconnexion) : ni lui ni ses successeurs ne pourront plus être échangés.
+   * Détenir le token suffit à l'autoriser, puisqu'il permettrait de toute façon de prolonger la session.
+   */
+  @Transactional
+  public boolean revoke(String presentedToken) {
+    if (presentedToken == null) {
+      return false;
+    }
+
+    Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(presentedToken));
+    if (!stored.isPresent()) {
+      return false;
+    }
+
+    refreshTokenRepository.revokeFamily(stored.get().getFamilyId());
+    return true;
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.revocationPurgeMs:3600000}")
+  public void purgeExpired() {
+    long deleted = refreshTokenRepository.deleteByExpiresAtBefore(new Date());
+    if (deleted > 0) {
+      logger.info("Purged {} expired refresh tokens", deleted);
+    }
+  }
+
+  private String create(Long userId, String familyId) {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    refreshTokenRepository.save(RefreshToken.builder()
+        .tokenHash(hash(value))
+        .userId(userId)
+        .familyId(familyId)
+        .expiresAt(new Date(System.currentTimeMillis() + refreshExpirationMs))
+        .build());
+
+    return value;
+  }
+
+  static String hash(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Résultat d'une rotation : l'utilisateur et son nouveau refresh token.
+   */
+  public static final class Rotation {
+    private final Long userId;
+    private final String refreshToken;
+
+    public Rotation(Long userId, String refreshToken) {
+      this.userId = userId;
+      this.refreshToken = refreshToken;
+    }
+
+    public Long getUserId() {
+      return userId;
+    }
+
+    public String getRefreshToken() {
+      return refreshToken;
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Filtre de Bloom des emails inscrits : une absence certaine évite la requête en base au
+ * login d'un email inconnu ; une présence possible retombe sur le repository.
+ * <p>
+ * Rempli au démarrage en parcourant la table USERS, complété à chaque inscription et par la
+ * relecture périodique des nouveaux identifiants, pour les inscriptions reçues par une autre instance.
+ * Une absence n'est jamais définitive à elle seule : elle déclenche d'abord une relecture des
+ * identifiants récents, pour un email inscrit sur une autre instance depuis la dernière relecture.
+ * Les bits ne pouvant pas être effacés, les suppressions sont rattrapées par la reconstruction périodique.
+ */
+@Service
+public class RegisteredEmailFilter implements MeterBinder {
+  private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final UserRepository userRepository;
+
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final boolean enabled;
+
+  private final int expectedEmails;
+
+  // Les identifiants sont attribués à l'insertion, pas au commit : un lot d'import (500 lignes) ou
+  // d'inscriptions (50) peut valider des identifiants inférieurs au dernier vu. Doit dépasser le plus gros lot en cours.
+  private final long pollOverlap;
+
+  private final Object filterLock = new Object();
+
+  private volatile BloomFilter filter;
+
+  // Filtre en cours de reconstruction : les inscriptions concurrentes y sont ajoutées aussi
+  private BloomFilter pending;
+
+  private volatile boolean ready;
+
+  private long lastSeenId;
+
+  // Début de la dernière relecture : une absence constatée avant cette date y est déjà rattrapée
+  private volatile long lastPollStartedAt;
+
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger removed = new AtomicInteger();
+
+  private final LongAdder skipped = new LongAdder();
+
+  public RegisteredEmailFilter(UserRepository userRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${oc.app.emailFilterEnabled:true}") boolean enabled,
+                               @Value("${oc.app.emailFilterExpectedSize:100000}") int expectedEmails,
+                               @Value("${oc.app.emailFilterPollOverlap:2000}") long pollOverlap) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+    this.expectedEmails = expectedEmails;
+    this.pollOverlap = pollOverlap;
+    this.filter = new BloomFilter(expectedEmails, FALSE_POSITIVE_RATE);
+  }
+
+  // Après le démarrage : lire USERS pendant la création des MeterBinder formerait un cycle avec le MeterRegistry
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  /**
+   * false : l'email n'est certainement pas inscrit. true : il l'est peut-être, à confirmer en base.
+   * Tant que le filtre n'est pas chargé (ou s'il est désactivé), la réponse est toujours true.
+   */
+  public boolean mightExist(String email) {
+    if (!ready || email == null) {
+      return true;
+    }
+
+    String key = key(email);
+    if (filter.mightContain(key)) {
+      return true;
+    }
+
+    // Absent du filtre : les inscriptions validées depuis la dernière relecture sont relues avant de conclure
+    catchUp(System.currentTimeMillis());
+    if (filter.mightContain(key)) {
+      return true;
+    }
+    skipped.increment();
+    return false;
+  }
+
+  public void add(String email) {
+    if (email == null) {
+      return;
+    }
+
+    String key = key(email);
+    synchronized (filterLock) {
+      if (!filter.mightContain(key)) {
+        size.incrementAndGet();
+      }
+      filter.put(key);
+      if (pending != null) {
+        pending.put(key);
+      }
+    }
+  }
+
+  public void markRemoved(String email) {
+    if (email != null) {
+      removed.incrementAndGet();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.emailFilterPollMs:2000}")
+  public synchronized void poll() {
+    if (!ready) {
+      return;
+    }
+
+    lastPollStartedAt = System.currentTimeMillis();
+    long cursor = lastSeenId;
+    for (UserRepository.UserEmail user : userRepository.findByIdGreaterThanOrderByIdAsc(Math.max(0, cursor - pollOverlap))) {
+      add(user.getEmail());
+      cursor = Math.max(cursor, user.getId());
+    }
+    lastSeenId = cursor;
+  }
+
+  // Les absences concurrentes partagent une même relecture, pourvu qu'elle ait commencé après elles
+  private synchronized void catchUp(long missedAt) {
+    // À la milliseconde près, la relecture a pu précéder l'inscription : on relit de nouveau
+    if (lastPollStartedAt <= missedAt) {
+      poll();
+    }
+  }
+
+  /**
+   * Reconstruction inconditionnelle : rattrape les suppressions, le dépassement de capacité
+   * et toute inscription que la relecture aurait manquée.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.emailFilterRebuildMs:3600000}")
+  public void scheduledRebuild() {
+    if (ready) {
+      rebuild();
+    }
+  }
+
+  public synchronized void rebuild() {
+    long startedAt = System.currentTimeMillis();
+    int nextCapacity = Math.max(expectedEmails, size.get() * 2);
+    BloomFilter next = new BloomFilter(nextCapacity, FALSE_POSITIVE_RATE);
+    AtomicInteger count = new AtomicInteger();
+    AtomicLong maxId = new AtomicLong(lastSeenId);
+    int removedBefore = removed.get();
+
+    synchronized (filterLock) {
+      pending = next;
+    }
+    try {
+      readOnlyTransaction.executeWithoutResult(status -> {
+        try (Stream<UserRepository.UserEmail> users = userRepository.streamAllBy()) {
+          users.forEach(user -> {
+            next.put(key(user.getEmail()));
+            count.incrementAndGet();
+            maxId.accumulateAndGet(user.getId(), Math::max);
+          });
+        }
+      });
+
+      synchronized (filterLock) {
+        filter = next;
+      }
+    } finally {
+      synchronized (filterLock) {
+        pending = null;
+      }
+    }
+
+    size.set(count.get());
+    removed.addAndGet(-removedBefore);
+    lastSeenId = maxId.get();
+    lastPollStartedAt = startedAt;
+    ready = true;
+    logger.info("Registered email filter loaded: {} emails, capacity {}, {} removals dropped", count.get(), nextCapacity, removedBefore);
+  }
+
+  public long getSkippedCount() {
+    return skipped.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("auth.email.filter.skipped", skipped, LongAdder::doubleValue).register(registry);
+  }
+
+  // Même forme que la colonne email_normalized, sur laquelle portent les recherches
+  private static String key(String email) {
+    return User.normalizeEmail(email);
+  }
+}
@@ -0,0 +1,285 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.services.UserBatchInserter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Inscriptions asynchrones (oc.app.registrationAsync) : la requête validée est placée dans une file
+ * bornée et acquittée aussitôt ; des workers dédiés hachent les mots de passe et insèrent les comptes
+ * par lots, hors des threads Tomcat.
+ * <p>
+ * L'état de chaque inscription reste consultable jusqu'à oc.app.registrationStatusTtlMs après son
+ * traitement. La file est en mémoire : à l'arrêt, les workers la vident avant de s'interrompre.
+ */
+@Service
+public class RegistrationQueue implements MeterBinder {
+  private static final Logger logger = LoggerFactory.getLogger(RegistrationQueue.class);
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  static final String EMAIL_TAKEN = "Error: Email is already taken!";
+
+  public enum State { PENDING, REGISTERED, FAILED }
+
+  private final PasswordEncoder passwordEncoder;
+
+  private final UserBatchInserter batchInserter;
+
+  private final boolean enabled;
+
+  private final int workers;
+
+  private final int batchSize;
+
+  private final long statusTtlMs;
+
+  private final int retryAfterSeconds;
+
+  private final BlockingQueue<Pending> queue;
+
+  private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder registered = new LongAdder();
+
+  private ExecutorService executor;
+
+  private volatile boolean running;
+
+  // PasswordEncoder différé : il vient de WebSecurityConfig, qui dépend lui-même du MeterRegistry
+  // auquel ce composant est lié en tant que MeterBinder
+  public RegistrationQueue(@Lazy PasswordEncoder passwordEncoder,
+                           UserBatchInserter batchInserter,
+                           @Value("${oc.app.registrationAsync:false}") boolean enabled,
+                           @Value("${oc.app.registrationThreads:0}") int threads,
+                           @Value("${oc.app.registrationQueueCapacity:1000}") int queueCapacity,
+                           @Value("${oc.app.registrationBatchSize:50}") int batchSize,
+                           @Value("${oc.app.registrationStatusTtlMs:600000}") long statusTtlMs,
+                           @Value("${oc.app.registrationRetryAfterSeconds:1}") int retryAfterSeconds) {
+    this.passwordEncoder = passwordEncoder;
+    this.batchInserter = batchInserter;
+    this.enabled = enabled;
+    this.workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.batchSize = Math.max(1, batchSize);
+    this.statusTtlMs = statusTtlMs;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "register-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    running = true;
+    for (int i = 0; i < workers; i++) {
+      executor.execute(this::work);
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Place l'inscription dans la file et retourne l'identifiant permettant d'en suivre l'état.
+   *
+   * @throws RejectedExecutionException si la file est pleine ou le service arrêté
+   */
+  public String submit(SignupRequest request) {
+    if (!running) {
+      throw new RejectedExecutionException("Registration queue is not running");
+    }
+
+    String id = UUID.randomUUID().toString();
+    statuses.put(id, new Status(State.PENDING, null));
+    if (!queue.offer(new Pending(id, request))) {
+      statuses.remove(id);
+      rejected.increment();
+      throw new RejectedExecutionException("Registration queue is full");
+    }
+    return id;
+  }
+
+  public Status getStatus(String id) {
+    return statuses.get(id);
+  }
+
+  private void work() {
+    List<Pending> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        Pending first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        process(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        logger.error("Registration batch failed", e);
+        Status failed = new Status(State.FAILED, "Error: Registration failed, please retry later!");
+        batch.forEach(pending -> statuses.computeIfPresent(pending.id,
+            (id, status) -> status.state == State.PENDING ? failed : status));
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  void process(List<Pending> batch) {
+    // Un même email deux fois dans le lot : seule la première demande est tentée
+    Set<String> seen = new HashSet<>();
+    List<Pending> accepted = new ArrayList<>(batch.size());
+    for (Pending pending : batch) {
+      if (seen.add(User.normalizeEmail(pending.request.getEmail()))) {
+        accepted.add(pending);
+      } else {
+        complete(pending.id, State.FAILED, EMAIL_TAKEN);
+      }
+    }
+
+    List<User> users = new ArrayList<>(accepted.size());
+    for (Pending pending : accepted) {
+      users.add(new User(pending.request.getEmail(),
+          pending.request.getLastName(),
+          pending.request.getFirstName(),
+          passwordEncoder.encode(pending.request.getPassword()),
+          false));
+    }
+
+    boolean[] inserted = batchInserter.insert(users);
+    for (int i = 0; i < users.size(); i++) {
+      if (inserted[i]) {
+        registered.increment();
+        complete(accepted.get(i).id, State.REGISTERED, "User registered successfully!");
+      } else {
+        complete(accepted.get(i).id, State.FAILED, EMAIL_TAKEN);
+      }
+    }
+  }
+
+  private void complete(String id, State state, String message) {
+    statuses.put(id, new Status(state, message));
+  }
+
+  /**
+   * Oublie les inscriptions traitées depuis plus de oc.app.registrationStatusTtlMs.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.registrationStatusPurgeMs:60000}")
+  public void purgeStatuses() {
+    long expiredBefore = System.currentTimeMillis() - statusTtlMs;
+    statuses.values().removeIf(status -> status.state != State.PENDING && status.completedAt < expiredBefore);
+  }
+
+  public int getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("auth.register.queue.depth", queue, BlockingQueue::size).register(registry);
+    FunctionCounter.builder("auth.register.rejected", rejected, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("auth.register.completed", registered, LongAdder::doubleValue).register(registry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor == null) {
+      return;
+    }
+
+    running = false;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.warn("{} pending registrations dropped at shutdown", queue.size());
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static class Status {
+    private final State state;
+    private final String message;
+    private final long completedAt;
+
+    Status(State state, String message) {
+      this.state = state;
+      this.message = message;
+      this.completedAt = System.currentTimeMillis();
+    }
+
+    public State getState() {
+      return state;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  static class Pending {
+    private final String id;
+    private final SignupRequest request;
+
+    Pending(String id, SignupRequest request) {
+      this.id = id;
+      this.request = request;
+    }
+  }
+}
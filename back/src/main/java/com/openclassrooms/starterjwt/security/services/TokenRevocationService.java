@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+/**
+ * Liste des tokens révoqués (par jti), persistée en base et recopiée en mémoire.
+ * Le cas courant "non révoqué" est tranché par le filtre de Bloom, sans accès à la base ;
+ * chaque instance relit uniquement les lignes ajoutées depuis son dernier passage.
+ */
+@Service
+public class TokenRevocationService {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  // Les identifiants sont attribués à l'insertion, pas au commit : on relit les dernières
+  // lignes déjà vues pour ne pas manquer une transaction validée dans le désordre
+  static final long POLL_OVERLAP = 100;
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final int expectedRevocations;
+
+  // jti -> date d'expiration du token (ms)
+  private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+  private volatile BloomFilter bloomFilter;
+
+  private volatile long lastSeenId;
+
+  public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                @Value("${oc.app.revocationExpectedSize:10000}") int expectedRevocations) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.expectedRevocations = expectedRevocations;
+    this.bloomFilter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+  }
+
+  @PostConstruct
+  public void init() {
+    poll();
+  }
+
+  public boolean isRevoked(String tokenId) {
+    if (tokenId == null) {
+      return false;
+    }
+
+    return bloomFilter.mightContain(tokenId) && revoked.containsKey(tokenId);
+  }
+
+  public void revoke(String tokenId, Date expiration) {
+    if (tokenId == null || expiration == null || revoked.containsKey(tokenId)) {
+      return;
+    }
+
+    try {
+      revokedTokenRepository.save(RevokedToken.builder()
+          .tokenId(tokenId)
+          .expiresAt(expiration)
+          .build());
+    } catch (DataIntegrityViolationException e) {
+      // Déjà révoqué par une autre instance
+      logger.debug("Token {} already revoked", tokenId);
+    }
+    remember(tokenId, expiration.getTime());
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.revocationPollMs:5000}")
+  public void poll() {
+    long now = System.currentTimeMillis();
+    long cursor = lastSeenId;
+
+    for (RevokedToken token : revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(Math.max(0, cursor - POLL_OVERLAP))) {
+      long expiresAt = token.getExpiresAt().getTime();
+      if (expiresAt > now && !revoked.containsKey(token.getTokenId())) {
+        remember(token.getTokenId(), expiresAt);
+      }
+      cursor = Math.max(cursor, token.getId());
+    }
+    lastSeenId = cursor;
+  }
+
+  /**
+   * Oublie les tokens expirés (ils sont de toute façon refusés par la vérification de "exp")
+   * et reconstruit le filtre de Bloom, dont les bits ne peuvent pas être effacés.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.revocationPurgeMs:3600000}")
+  public void purgeExpired() {
+    long now = System.currentTimeMillis();
+    revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+    synchronized (this) {
+      BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+      revoked.keySet().forEach(rebuilt::put);
+      bloomFilter = rebuilt;
+    }
+
+    long deleted = revokedTokenRepository.deleteByExpiresAtBefore(new Date(now));
+    if (deleted > 0) {
+      logger.info("Purged {} expired revoked tokens", deleted);
+    }
+  }
+
+  public int size() {
+    return revoked.size();
+  }
+
+  // Synchronisé avec la reconstruction pour qu'aucun ajout ne tombe dans l'ancien filtre
+  private synchronized void remember(String tokenId, long expiresAt) {
+    revoked.put(tokenId, expiresAt);
+    bloomFilter.put(tokenId);
+  }
+}
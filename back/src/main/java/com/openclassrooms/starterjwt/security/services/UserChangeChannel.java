@@ -0,0 +1,125 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.openclassrooms.starterjwt.models.UserChange;
+import com.openclassrooms.starterjwt.repository.UserChangeRepository;
+
+/**
+ * Invalidation du cache des utilisateurs lorsqu'un compte est modifié ou supprimé.
+ * <p>
+ * Avec oc.app.userChangeChannelEnabled, chaque modification est aussi inscrite dans la table
+ * USER_CHANGES, que les autres instances relisent périodiquement pour invalider leur propre cache ;
+ * sans elle, leurs entrées ne sont corrigées qu'à l'expiration du TTL.
+ */
+@Service
+public class UserChangeChannel {
+  private static final Logger logger = LoggerFactory.getLogger(UserChangeChannel.class);
+
+  // Même raison que pour les révocations : les identifiants sont attribués à l'insertion, pas au commit
+  static final long POLL_OVERLAP = 100;
+
+  private final UserChangeRepository userChangeRepository;
+
+  private final UserDetailsCache userDetailsCache;
+
+  private final boolean enabled;
+
+  private final long retentionMs;
+
+  private long lastSeenId;
+
+  // Lignes de la zone de recouvrement déjà appliquées, pour ne pas invalider deux fois
+  private final Set<Long> applied = new HashSet<>();
+
+  public UserChangeChannel(UserChangeRepository userChangeRepository,
+                           UserDetailsCache userDetailsCache,
+                           @Value("${oc.app.userChangeChannelEnabled:false}") boolean enabled,
+                           @Value("${oc.app.userChangeRetentionMs:3600000}") long retentionMs) {
+    this.userChangeRepository = userChangeRepository;
+    this.userDetailsCache = userDetailsCache;
+    this.enabled = enabled;
+    this.retentionMs = retentionMs;
+  }
+
+  /**
+   * Le cache démarre vide : l'historique antérieur n'a pas besoin d'être rejoué.
+   */
+  @PostConstruct
+  public synchronized void init() {
+    if (enabled) {
+      lastSeenId = userChangeRepository.findTopByOrderByIdDesc().map(UserChange::getId).orElse(0L);
+    }
+  }
+
+  public void userChanged(String email) {
+    if (email == null) {
+      return;
+    }
+
+    userDetailsCache.invalidate(email);
+    if (enabled) {
+      userChangeRepository.save(UserChange.builder()
+          .email(email)
+          .changedAt(new Date())
+          .build());
+    }
+
+    // Un chargement concurrent a pu relire l'ancienne ligne avant le commit : on invalide de nouveau après
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          userDetailsCache.invalidate(email);
+        }
+      });
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.userChangePollMs:5000}")
+  public synchronized void poll() {
+    if (!enabled) {
+      return;
+    }
+
+    long from = Math.max(0, lastSeenId - POLL_OVERLAP);
+    long cursor = lastSeenId;
+    for (UserChange change : userChangeRepository.findByIdGreaterThanOrderByIdAsc(from)) {
+      if (applied.add(change.getId())) {
+        userDetailsCache.invalidate(change.getEmail());
+      }
+      cursor = Math.max(cursor, change.getId());
+    }
+    lastSeenId = cursor;
+
+    long floor = Math.max(0, cursor - POLL_OVERLAP);
+    applied.removeIf(id -> id <= floor);
+  }
+
+  /**
+   * Au-delà de la rétention, toutes les instances ont relu la ligne depuis longtemps.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.userChangePurgeMs:3600000}")
+  public void purgeExpired() {
+    if (!enabled) {
+      return;
+    }
+
+    long deleted = userChangeRepository.deleteByChangedAtBefore(new Date(System.currentTimeMillis() - retentionMs));
+    if (deleted > 0) {
+      logger.info("Purged {} user change events", deleted);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.models.User;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Cache borné des principaux chargés en base, indexé par email (sans casse, comme la
+ * collation de la colonne) et expiré au bout de oc.app.userCacheTtlMs.
+ * <p>
+ * Chaque invalidation fait avancer une génération : un chargement commencé avant n'est
+ * pas conservé, pour ne pas remettre en cache une ligne lue juste avant sa modification.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+  private static final long PURGE_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+
+  private final int maxSize;
+
+  private final long ttlMs;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final AtomicLong lastPurge = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadNanos = new LongAdder();
+
+  public UserDetailsCache(@Value("${oc.app.userCacheMaxSize:10000}") int maxSize,
+                          @Value("${oc.app.userCacheTtlMs:300000}") long ttlMs) {
+    this.maxSize = maxSize;
+    this.ttlMs = ttlMs;
+  }
+
+  /**
+   * Retourne le principal en cache, ou le charge avec le loader et le met en cache.
+   * Les exceptions du loader (utilisateur inconnu) sont propagées et rien n'est conservé.
+   */
+  public UserDetailsImpl get(String email, Function<String, UserDetailsImpl> loader) {
+    if (email == null) {
+      return loader.apply(null);
+    }
+
+    String key = key(email);
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(key);
+
+    if (entry != null && !entry.isExpired(now)) {
+      hits.increment();
+      return entry.details;
+    }
+    if (entry != null && entries.remove(key, entry)) {
+      evictions.increment();
+    }
+    misses.increment();
+
+    long loadGeneration = generation.get();
+    long start = System.nanoTime();
+    UserDetailsImpl details;
+    try {
+      details = loader.apply(email);
+    } finally {
+      loads.increment();
+      loadNanos.add(System.nanoTime() - start);
+    }
+
+    if (maxSize > 0 && ttlMs > 0 && generation.get() == loadGeneration) {
+      Entry loaded = new Entry(details, now + ttlMs);
+      makeRoom(now);
+      entries.put(key, loaded);
+      // Invalidation survenue pendant l'insertion : on retire ce que l'on vient d'ajouter
+      if (generation.get() != loadGeneration) {
+        entries.remove(key, loaded);
+      }
+    }
+    return details;
+  }
+
+  public void invalidate(String email) {
+    if (email == null) {
+      return;
+    }
+
+    generation.incrementAndGet();
+    entries.remove(key(email));
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  public long getLoadCount() {
+    return loads.sum();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("user.cache.hits", hits, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("user.cache.misses", misses, LongAdder::doubleValue).register(registry);
+    FunctionCounter.builder("user.cache.evictions", evictions, LongAdder::doubleValue).register(registry);
+    Gauge.builder("user.cache.hit.ratio", this, UserDetailsCache::getHitRatio).register(registry);
+    Gauge.builder("user.cache.size", entries, Map::size).register(registry);
+    FunctionTimer.builder("user.cache.load", this, UserDetailsCache::getLoadCount,
+        cache -> cache.loadNanos.doubleValue(), TimeUnit.NANOSECONDS).register(registry);
+  }
+
+  private void makeRoom(long now) {
+    if (entries.size() < maxSize) {
+      return;
+    }
+
+    long last = lastPurge.get();
+    // Un seul thread balaie la map, et au plus une fois par intervalle
+    if (now - last >= PURGE_INTERVAL_MS && lastPurge.compareAndSet(last, now)) {
+      Iterator<Entry> values = entries.values().iterator();
+      while (values.hasNext()) {
+        if (values.next().isExpired(now)) {
+          values.remove();
+          evictions.increment();
+        }
+      }
+    }
+    // Toujours plein : on libère une entrée arbitraire plutôt que de verrouiller la map
+    if (entries.size() >= maxSize) {
+      Iterator<String> keys = entries.keySet().iterator();
+      if (keys.hasNext()) {
+        keys.next();
+        keys.remove();
+        evictions.increment();
+      }
+    }
+  }
+
+  // Même forme que la colonne email_normalized, sur laquelle portent les recherches
+  private static String key(String email) {
+    return User.normalizeEmail(email);
+  }
+
+  private static final class Entry {
+    private final UserDetailsImpl details;
+    private final long expiresAt;
+
+    private Entry(UserDetailsImpl details, long expiresAt) {
+      this.details = details;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+}
@@ -1,10 +1,14 @@
 package com.openclassrooms.starterjwt.security.services;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -13,12 +17,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @Getter
 public class UserDetailsImpl implements UserDetails {
   private static final long serialVersionUID = 1L;
 
+  // Ensembles immuables partagés par tous les principaux : aucune allocation à chaque contrôle d'accès
+  private static final GrantedAuthority ROLE_USER = new SimpleGrantedAuthority("ROLE_USER");
+  private static final GrantedAuthority ROLE_ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+
+  private static final Set<GrantedAuthority> USER_AUTHORITIES = Collections.singleton(ROLE_USER);
+  private static final Set<GrantedAuthority> ADMIN_AUTHORITIES =
+      Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(ROLE_USER, ROLE_ADMIN)));
+
   private Long id;
 
   private String username;
@@ -32,8 +44,9 @@ public class UserDetailsImpl implements UserDetails {
   @JsonIgnore
   private String password;  
   
-  public Collection<? extends GrantedAuthority> getAuthorities() {        
-      return new HashSet<GrantedAuthority>();
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return Boolean.TRUE.equals(admin) ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
   }
 
   @Override
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.security.services;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -10,27 +11,79 @@ import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   UserRepository userRepository;
 
-  UserDetailsServiceImpl(UserRepository userRepository) {
+  UserDetailsCache userDetailsCache;
+
+  UserChangeChannel userChangeChannel;
+
+  RegisteredEmailFilter registeredEmails;
+
+  UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache,
+                         UserChangeChannel userChangeChannel, RegisteredEmailFilter registeredEmails) {
     this.userRepository = userRepository;
+    this.userDetailsCache = userDetailsCache;
+    this.userChangeChannel = userChangeChannel;
+    this.registeredEmails = registeredEmails;
   }
 
+  /**
+   * Lecture à travers le cache : pas de transaction ouverte, ni de connexion prise, sur un hit.
+   */
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    return userDetailsCache.get(username, this::loadFromDatabase);
+  }
+
+  private UserDetailsImpl loadFromDatabase(String username) {
+    // Email certainement inconnu : même réponse qu'un utilisateur introuvable, sans requête
+    if (!registeredEmails.mightExist(username)) {
+      throw new UsernameNotFoundException("User Not Found with email: " + username);
+    }
+
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
 
+    return build(user);
+  }
+
+  /**
+   * Chargement par identifiant, utilisé lors du rafraîchissement d'un token.
+   */
+  @Transactional
+  public UserDetailsImpl loadUserById(Long id) throws UsernameNotFoundException {
+    User user = userRepository.findById(id)
+        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with id: " + id));
+
+    return build(user);
+  }
+
+  private static UserDetailsImpl build(User user) {
     return UserDetailsImpl
             .builder()
             .id(user.getId())
             .username(user.getEmail())
             .lastName(user.getLastName())
             .firstName(user.getFirstName())
+            .admin(user.isAdmin())
             .password(user.getPassword())
             .build();
   }
 
+  /**
+   * Appelé par Spring Security après un login réussi lorsque le coût BCrypt
+   * du hash stocké diffère du coût calibré : le hash est réécrit en base.
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+    userChangeChannel.userChanged(user.getUsername());
+
+    return ((UserDetailsImpl) user).toBuilder()
+            .password(newPassword)
+            .build();
+  }
+
 }
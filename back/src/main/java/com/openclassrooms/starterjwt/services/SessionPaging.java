@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Pagination par clé de la liste des séances : le curseur encode la position (date, id)
+ * de la dernière séance renvoyée, la page suivante commence juste après.
+ */
+@Component
+public class SessionPaging {
+    private final int defaultSize;
+    private final int maxSize;
+    private final boolean unpagedByDefault;
+
+    public SessionPaging(@Value("${oc.app.sessionPageSize:20}") int defaultSize,
+                         @Value("${oc.app.sessionPageMaxSize:100}") int maxSize,
+                         @Value("${oc.app.sessionListUnpaged:true}") boolean unpagedByDefault) {
+        this.maxSize = Math.max(1, maxSize);
+        this.defaultSize = Math.min(Math.max(1, defaultSize), this.maxSize);
+        this.unpagedByDefault = unpagedByDefault;
+    }
+
+    /**
+     * Sans curseur ni taille, l'ancienne liste complète reste servie tant que oc.app.sessionListUnpaged est actif.
+     */
+    public boolean isUnpaged(String cursor, Integer size) {
+        return this.unpagedByDefault && cursor == null && size == null;
+    }
+
+    /**
+     * Taille demandée, plafonnée à oc.app.sessionPageMaxSize.
+     *
+     * @throws BadRequestException si la taille n'est pas strictement positive
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return this.defaultSize;
+        }
+        if (requested < 1) {
+            throw new BadRequestException();
+        }
+        return Math.min(requested, this.maxSize);
+    }
+
+    public String encode(Session last) {
+        String position = last.getDate().getTime() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws BadRequestException si le curseur n'a pas été produit par encode
+     */
+    public Cursor decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = position.indexOf(':');
+            return new Cursor(new Date(Long.parseLong(position.substring(0, separator))),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    public static class Cursor {
+        private final Date date;
+        private final Long id;
+
+        public Cursor(Date date, Long id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
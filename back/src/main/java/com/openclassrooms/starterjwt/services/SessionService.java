@@ -4,11 +4,20 @@ import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSpecifications;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,8 +43,63 @@ public class SessionService {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Séances répondant à tous les filtres renseignés, par date puis id, en une seule requête.
+     */
+    public List<Session> search(SessionFilter filter) {
+        Date from = filter.getFrom() != null ? Date.from(filter.getFrom().toInstant()) : null;
+        Date to = filter.getTo() != null ? Date.from(filter.getTo().toInstant()) : null;
+        if (from != null && to != null && from.after(to)) {
+            throw new BadRequestException();
+        }
+
+        Specification<Session> specification = Specification.where(SessionSpecifications.hasTeacher(filter.getTeacher_id()))
+                .and(SessionSpecifications.dateFrom(from))
+                .and(SessionSpecifications.dateBefore(to))
+                .and(SessionSpecifications.nameStartsWith(filter.getName()))
+                .and(Boolean.TRUE.equals(filter.getFreeSeats()) ? SessionSpecifications.hasFreeSeats() : null);
+        return this.sessionRepository.findAll(specification, SessionSpecifications.BY_DATE);
+    }
+
+    public List<Session> findUpcoming() {
+        return this.sessionRepository.findByDateGreaterThanEqualOrderByDateAscIdAsc(new Date());
+    }
+
+    public List<SessionRepository.SessionSummary> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
+    }
+
+    /**
+     * Au plus limit séances, par date puis id, situées après le curseur (ou depuis le début).
+     */
+    public List<Session> findPage(SessionPaging.Cursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null) {
+            return this.sessionRepository.findAllByOrderByDateAscIdAsc(page);
+        }
+        return this.sessionRepository.findPageAfter(after.getDate(), after.getId(), page);
+    }
+
+    /**
+     * Identifiants des participants de chaque séance, lus en une seule requête sur PARTICIPATE.
+     * Une séance sans participant n'apparaît pas dans la map.
+     */
+    public Map<Long, List<Long>> findParticipantIds(List<Session> sessions) {
+        if (sessions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<Long> sessionIds = sessions.stream().map(Session::getId).collect(Collectors.toList());
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        for (Object[] row : this.sessionRepository.findParticipantIds(sessionIds)) {
+            participantIds.computeIfAbsent(((Number) row[0]).longValue(), sessionId -> new ArrayList<>())
+                    .add(((Number) row[1]).longValue());
+        }
+        return participantIds;
+    }
+
     public Session getById(Long id) {
-        return this.sessionRepository.findById(id).orElse(null);
+        return this.sessionRepository.findWithUsersById(id).orElse(null);
     }
 
     public Session update(Long id, Session session) {
@@ -44,7 +108,7 @@ public class SessionService {
     }
 
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
+        Session session = this.sessionRepository.findWithUsersById(id).orElse(null);
         User user = this.userRepository.findById(userId).orElse(null);
         if (session == null || user == null) {
             throw new NotFoundException();
@@ -61,7 +125,7 @@ public class SessionService {
     }
 
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
+        Session session = this.sessionRepository.findWithUsersById(id).orElse(null);
         if (session == null) {
             throw new NotFoundException();
         }
@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Insertion par lots commune à l'import en masse et aux inscriptions asynchrones : le lot part
+ * en un seul batch JDBC et, si un email est déjà pris, il est rejoué ligne par ligne pour
+ * n'écarter que les doublons. Une violation d'une autre contrainte est propagée telle quelle.
+ * Chaque compte inséré est ajouté au RegisteredEmailFilter.
+ */
+@Service
+public class UserBatchInserter {
+
+    private final UserRepository userRepository;
+    private final RegisteredEmailFilter registeredEmails;
+    private final TransactionTemplate transaction;
+
+    public UserBatchInserter(UserRepository userRepository,
+                             RegisteredEmailFilter registeredEmails,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.registeredEmails = registeredEmails;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return pour chaque utilisateur, dans l'ordre de la liste, true s'il a été inséré
+     * et false si son email était déjà pris
+     */
+    public boolean[] insert(List<User> users) {
+        boolean[] inserted = new boolean[users.size()];
+        if (users.isEmpty()) {
+            return inserted;
+        }
+
+        try {
+            this.transaction.executeWithoutResult(status -> this.userRepository.insertAll(users));
+            Arrays.fill(inserted, true);
+        } catch (DataIntegrityViolationException e) {
+            if (!UserRepository.isEmailConflict(e)) {
+                throw e;
+            }
+            // Au moins un email inscrit entre la vérification et l'insertion : le lot est rejoué ligne par ligne
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    this.userRepository.insertAll(Collections.singletonList(users.get(i)));
+                    inserted[i] = true;
+                } catch (DataIntegrityViolationException conflict) {
+                    if (!UserRepository.isEmailConflict(conflict)) {
+                        throw conflict;
+                    }
+                    inserted[i] = false;
+                }
+            }
+        }
+
+        for (int i = 0; i < users.size(); i++) {
+            if (inserted[i]) {
+                this.registeredEmails.add(users.get(i).getEmail());
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,309 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.response.ImportResponse;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse de comptes depuis un flux CSV (avec en-tête email,firstName,lastName,password)
+ * ou NDJSON (un objet SignupRequest par ligne).
+ * <p>
+ * Le flux est lu ligne à ligne et traité par lots : seul le lot courant est gardé en mémoire.
+ * Les mots de passe d'un lot sont hachés en parallèle sur un pool dédié, puis le lot est inséré
+ * en un seul batch JDBC. Une ligne invalide ou un email déjà pris est rapporté sans interrompre l'import.
+ */
+@Service
+public class UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    static final String[] CSV_COLUMNS = { "email", "firstName", "lastName", "password" };
+
+    static final String MALFORMED_ROW = "Malformed row";
+    static final String EMAIL_TAKEN = "Email is already taken";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final UserBatchInserter batchInserter;
+
+    private final ThreadPoolExecutor hashExecutor;
+
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public UserImportService(UserRepository userRepository,
+                             PasswordEncoder passwordEncoder,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             UserBatchInserter batchInserter,
+                             @Value("${oc.app.importThreads:0}") int threads,
+                             @Value("${oc.app.importBatchSize:500}") int batchSize,
+                             @Value("${oc.app.importMaxReportedErrors:100}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchInserter = batchInserter;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        // File bornée à un lot ; au-delà (imports simultanés), le thread appelant hache lui-même
+        this.hashExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(this.batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.hashExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public ImportResponse importUsers(InputStream input, Format format) throws IOException {
+        ImportResponse report = new ImportResponse(maxReportedErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<Row> chunk = new ArrayList<>(batchSize);
+        int[] columns = null;
+        int lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            if (format == Format.CSV && columns == null) {
+                columns = csvColumns(parseCsvLine(line));
+                continue;
+            }
+
+            SignupRequest request;
+            try {
+                request = format == Format.CSV
+                        ? fromCsv(parseCsvLine(line), columns)
+                        : objectMapper.readValue(line, SignupRequest.class);
+            } catch (IOException | IllegalArgumentException e) {
+                request = null;
+            }
+            if (request == null) {
+                report.addError(lineNumber, null, MALFORMED_ROW);
+                continue;
+            }
+
+            String violations = validate(request);
+            if (violations != null) {
+                report.addError(lineNumber, request.getEmail(), violations);
+                continue;
+            }
+
+            chunk.add(new Row(lineNumber, request));
+            if (chunk.size() >= batchSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        logger.info("User import finished: {} imported, {} failed", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void importChunk(List<Row> chunk, ImportResponse report) {
+        Set<String> existing = new HashSet<>(this.userRepository.findExistingNormalizedEmails(
+                chunk.stream().map(row -> User.normalizeEmail(row.request.getEmail())).collect(Collectors.toList())));
+
+        Set<String> seen = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String key = User.normalizeEmail(row.request.getEmail());
+            if (existing.contains(key) || !seen.add(key)) {
+                report.addError(row.line, row.request.getEmail(), EMAIL_TAKEN);
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<Future<User>> hashing = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            hashing.add(this.hashExecutor.submit(() -> toUser(row.request)));
+        }
+        List<User> users = new ArrayList<>(accepted.size());
+        for (Future<User> future : hashing) {
+            users.add(await(future));
+        }
+
+        // Un email inscrit entre la vérification et l'insertion n'écarte que sa propre ligne
+        boolean[] inserted = this.batchInserter.insert(users);
+        for (int i = 0; i < users.size(); i++) {
+            if (inserted[i]) {
+                report.addImported(1);
+            } else {
+                report.addError(accepted.get(i).line, users.get(i).getEmail(), EMAIL_TAKEN);
+            }
+        }
+    }
+
+    private User toUser(SignupRequest request) {
+        return new User(request.getEmail(),
+                request.getLastName(),
+                request.getFirstName(),
+                this.passwordEncoder.encode(request.getPassword()),
+                false);
+    }
+
+    private String validate(SignupRequest request) {
+        Set<ConstraintViolation<SignupRequest>> violations = this.validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        // Le mot de passe refusé n'apparaît jamais dans le message
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    static int[] csvColumns(List<String> header) {
+        int[] columns = new int[CSV_COLUMNS.length];
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (CSV_COLUMNS[i].equalsIgnoreCase(header.get(j).trim())) {
+                    columns[i] = j;
+                }
+            }
+            if (columns[i] < 0) {
+                throw new BadRequestException();
+            }
+        }
+        return columns;
+    }
+
+    private static SignupRequest fromCsv(List<String> fields, int[] columns) {
+        SignupRequest request = new SignupRequest();
+        request.setEmail(field(fields, columns[0]).trim());
+        request.setFirstName(field(fields, columns[1]).trim());
+        request.setLastName(field(fields, columns[2]).trim());
+        request.setPassword(field(fields, columns[3]));
+        return request;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            throw new IllegalArgumentException("Missing field " + index);
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * Découpe une ligne CSV (RFC 4180, séparateur virgule, guillemets doublés dans un champ entre guillemets).
+     * Les champs sur plusieurs lignes ne sont pas acceptés.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.hashExecutor.shutdown();
+    }
+
+    private static class Row {
+        private final int line;
+        private final SignupRequest request;
+
+        Row(int line, SignupRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+}
@@ -2,18 +2,32 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import com.openclassrooms.starterjwt.security.services.UserChangeChannel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final UserChangeChannel userChangeChannel;
+    private final RegisteredEmailFilter registeredEmails;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserChangeChannel userChangeChannel,
+                       RegisteredEmailFilter registeredEmails) {
         this.userRepository = userRepository;
+        this.userChangeChannel = userChangeChannel;
+        this.registeredEmails = registeredEmails;
     }
 
+    @Transactional
     public void delete(Long id) {
+        // Lu dans la même transaction que la suppression, qui le retrouve ensuite sans requête
+        String email = this.userRepository.findById(id).map(User::getEmail).orElse(null);
+
         this.userRepository.deleteById(id);
+        this.userChangeChannel.userChanged(email);
+        this.registeredEmails.markRemoved(email);
     }
 
     public User findById(Long id) {
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests pour JwksController
+ */
+public class JwksControllerTest {
+
+    /**
+     * Tests unitaires pour JwksController
+     */
+    @Nested
+    @DisplayName("Tests unitaires")
+    class UnitTests {
+        @Mock
+        private JwtKeyRing keyRing;
+
+        @InjectMocks
+        private JwksController jwksController;
+
+        @BeforeEach
+        void setUp() {
+            MockitoAnnotations.openMocks(this);
+        }
+
+        @Test
+        @DisplayName("jwks - Doit retourner le JWKS du trousseau avec un cache public")
+        void jwks_ShouldReturnKeyRingJwks() {
+            // Préparation
+            Map<String, Object> jwks = Collections.singletonMap("keys", Collections.emptyList());
+            when(keyRing.getJwks()).thenReturn(jwks);
+
+            // Exécution
+            ResponseEntity<?> response = jwksController.jwks();
+
+            // Vérifications
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertSame(jwks, response.getBody());
+            assertEquals("max-age=3600, public", response.getHeaders().getCacheControl());
+        }
+    }
+
+    /**
+     * Tests d'intégration pour JwksController
+     */
+    @Nested
+    @SpringBootTest
+    @AutoConfigureMockMvc
+    @DisplayName("Tests d'intégration pour JwksController")
+    class IntegrationTests {
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private JwtKeyRing keyRing;
+
+        @Test
+        @DisplayName("jwks - Doit être accessible sans authentification")
+        void jwks_ShouldBePublic() throws Exception {
+            // Exécution et vérifications
+            mockMvc.perform(MockMvcRequestBuilders.get("/.well-known/jwks.json"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.keys[0].kid").value(keyRing.getSigningKid()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.keys[0].kty").value("RSA"));
+        }
+    }
+}
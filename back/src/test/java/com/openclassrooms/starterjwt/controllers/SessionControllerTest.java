@@ -5,7 +5,17 @@ import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.payload.response.PageResponse;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.SessionPaging;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +24,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -21,16 +32,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +69,9 @@ public class SessionControllerTest {
         
         @Mock
         private SessionMapper sessionMapper;
+
+        @Spy
+        private SessionPaging sessionPaging = new SessionPaging(20, 100, true);
         
         @InjectMocks
         private SessionController sessionController;
@@ -188,19 +209,143 @@ public class SessionControllerTest {
         @DisplayName("findAll - Doit retourner toutes les séances")
         void findAll_ShouldReturnAllSessions() {
             // Préparation
+            Map<Long, List<Long>> participantIds = Collections.singletonMap(1L, Arrays.asList(testUserId));
             when(sessionService.findAll()).thenReturn(testSessions);
-            when(sessionMapper.toDto(testSessions)).thenReturn(testSessionDtos);
+            when(sessionService.findParticipantIds(testSessions)).thenReturn(participantIds);
+            when(sessionMapper.toDto(testSessions, participantIds)).thenReturn(testSessionDtos);
             
-            // Exécution
-            ResponseEntity<?> response = sessionController.findAll();
+            // Exécution - sans curseur ni taille, l'ancienne liste complète
+            ResponseEntity<?> response = sessionController.findAll(null, null, new SessionFilter());
             
-            // Vérification
+            // Vérification - participants lus à part, jamais via Session.users
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertEquals(testSessionDtos, response.getBody());
             verify(sessionService).findAll();
-            verify(sessionMapper).toDto(testSessions);
+            verify(sessionMapper).toDto(testSessions, participantIds);
+            verify(sessionMapper, never()).toDto(testSessions);
+        }
+
+        @Test
+        @DisplayName("findAllSummaries - Doit retourner les résumés des séances")
+        void findAllSummaries_ShouldReturnSummaries() {
+            // Préparation
+            SessionRepository.SessionSummary summary = mock(SessionRepository.SessionSummary.class);
+            when(sessionService.findAllSummaries()).thenReturn(Arrays.asList(summary));
+
+            // Exécution
+            ResponseEntity<?> response = sessionController.findAllSummaries();
+
+            // Vérification - ni entité ni mapper
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(Arrays.asList(summary), response.getBody());
+            verifyNoInteractions(sessionMapper);
+        }
+
+        @Test
+        @DisplayName("findAll - Doit retourner une page et le curseur de la suivante")
+        void findAll_ShouldReturnPageWithNextCursor() {
+            // Préparation - une séance de plus que la page demandée
+            when(sessionService.findPage(null, 2)).thenReturn(testSessions);
+            when(sessionService.findParticipantIds(Arrays.asList(testSession))).thenReturn(Collections.emptyMap());
+            when(sessionMapper.toDto(Arrays.asList(testSession), Collections.emptyMap())).thenReturn(Arrays.asList(testSessionDto));
+
+            // Exécution
+            ResponseEntity<?> response = sessionController.findAll(null, 1, new SessionFilter());
+
+            // Vérification
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            PageResponse<?> page = (PageResponse<?>) response.getBody();
+            assertEquals(Arrays.asList(testSessionDto), page.getItems());
+            assertEquals(testSession.getId(), sessionPaging.decode(page.getNextCursor()).getId());
+            verify(sessionService, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("findAll - Doit omettre le curseur sur la dernière page")
+        void findAll_ShouldOmitCursorOnLastPage() {
+            // Préparation
+            String cursor = sessionPaging.encode(testSession);
+            when(sessionService.findPage(any(SessionPaging.Cursor.class), eq(21))).thenReturn(Arrays.asList(testSessions.get(1)));
+
+            // Exécution
+            ResponseEntity<?> response = sessionController.findAll(cursor, null, new SessionFilter());
+
+            // Vérification
+            assertNull(((PageResponse<?>) response.getBody()).getNextCursor());
+            verify(sessionService).findPage(argThat(after -> after.getId().equals(1L)
+                    && after.getDate().equals(testSession.getDate())), eq(21));
+        }
+
+        @Test
+        @DisplayName("findAll - Doit refuser un curseur invalide")
+        void findAll_ShouldRejectInvalidCursor() {
+            assertThrows(BadRequestException.class, () -> sessionController.findAll("not-a-cursor", 10, new SessionFilter()));
+            verifyNoInteractions(sessionService);
         }
         
+        @Test
+        @DisplayName("findAll - Doit retourner les séances répondant aux filtres")
+        void findAll_ShouldReturnFilteredSessions() {
+            // Préparation
+            SessionFilter filter = new SessionFilter();
+            filter.setTeacher_id(1L);
+            filter.setFrom(OffsetDateTime.parse("2030-01-01T00:00:00Z"));
+            filter.setFreeSeats(true);
+            when(sessionService.search(filter)).thenReturn(testSessions);
+            when(sessionMapper.toDto(eq(testSessions), any())).thenReturn(testSessionDtos);
+
+            // Exécution
+            ResponseEntity<?> response = sessionController.findAll(null, null, filter);
+
+            // Vérification - une recherche filtrée, sans passer par la liste complète
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(testSessionDtos, response.getBody());
+            verify(sessionService).search(filter);
+            verify(sessionService, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("findAll - Doit ignorer freeSeats=false, qui ne filtre rien")
+        void findAll_ShouldTreatFreeSeatsFalseAsNoFilter() {
+            // Préparation
+            SessionFilter filter = new SessionFilter();
+            filter.setFreeSeats(false);
+            when(sessionService.findAll()).thenReturn(testSessions);
+
+            // Exécution
+            sessionController.findAll(null, null, filter);
+
+            // Vérification
+            verify(sessionService).findAll();
+            verify(sessionService, never()).search(any());
+        }
+
+        @Test
+        @DisplayName("findAll - Doit refuser des filtres combinés à la pagination")
+        void findAll_ShouldRejectFiltersWithPaging() {
+            SessionFilter filter = new SessionFilter();
+            filter.setFrom(OffsetDateTime.parse("2030-01-01T00:00:00Z"));
+
+            assertThrows(BadRequestException.class, () -> sessionController.findAll(null, 10, filter));
+            verifyNoInteractions(sessionService);
+        }
+
+        @Test
+        @DisplayName("findUpcoming - Doit retourner les séances à venir")
+        void findUpcoming_ShouldReturnUpcomingSessions() {
+            // Préparation
+            when(sessionService.findUpcoming()).thenReturn(testSessions);
+            when(sessionMapper.toDto(eq(testSessions), any())).thenReturn(testSessionDtos);
+
+            // Exécution
+            ResponseEntity<?> response = sessionController.findUpcoming();
+
+            // Vérification
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(testSessionDtos, response.getBody());
+            verify(sessionService, never()).findAll();
+        }
+
         @Test
         @DisplayName("create - Doit créer une nouvelle séance")
         void create_ShouldCreateNewSession() {
@@ -292,7 +437,7 @@ public class SessionControllerTest {
             verify(sessionService, never()).getById(anyLong());
             verify(sessionService, never()).delete(anyLong());
         }
-        
+
         @Test
         @DisplayName("participate - Doit ajouter un utilisateur à une séance")
         void participate_ShouldAddUserToSession() {
@@ -380,6 +525,12 @@ public class SessionControllerTest {
         
         @Autowired
         private com.openclassrooms.starterjwt.repository.UserRepository userRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private EntityManager entityManager;
         
         private Session testSession;
         private Teacher testTeacher;
@@ -490,10 +641,232 @@ public class SessionControllerTest {
                     // Vérifie qu'au moins un élément existe dans la réponse JSON
                     .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").exists());
         }
+
+        @Test
+        @DisplayName("findAll - Doit parcourir toutes les séances page par page, dans l'ordre des dates")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldWalkPagesInDateOrder() throws Exception {
+            // Préparation - deux séances de même date pour éprouver le départage par id
+            Session later = sessionRepository.save(new Session().setName("Plus tard").setDescription("Description")
+                    .setDate(new Date(testSession.getDate().getTime() + 3600000)).setTeacher(testTeacher));
+            Session sameDate = sessionRepository.save(new Session().setName("Même date").setDescription("Description")
+                    .setDate(testSession.getDate()).setTeacher(testTeacher));
+            ObjectMapper objectMapper = new ObjectMapper();
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+
+            // Exécution
+            do {
+                MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get("/api/session").param("size", "1");
+                if (cursor != null) {
+                    request.param("cursor", cursor);
+                }
+                JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                        .andReturn().getResponse().getContentAsString());
+                ids.add(page.get("items").get(0).get("id").asLong());
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            } while (cursor != null);
+
+            // Vérification - chaque séance une seule fois, dans l'ordre (date, id)
+            assertEquals(ids.size(), ids.stream().distinct().count());
+            assertEquals(Arrays.asList(testSession.getId(), sameDate.getId(), later.getId()),
+                    ids.subList(ids.indexOf(testSession.getId()), ids.indexOf(testSession.getId()) + 3));
+        }
+
+        @Test
+        @DisplayName("findAll - Doit lister N séances en un nombre de requêtes constant")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldIssueConstantQueryCount() throws Exception {
+            // Préparation - 3 puis 10 séances ayant chacune un participant
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            testSession.getUsers().add(testUser);
+            sessionRepository.save(testSession);
+            long[] counts = new long[2];
+
+            for (int round = 0; round < counts.length; round++) {
+                for (int i = 0; i < (round == 0 ? 2 : 7); i++) {
+                    List<User> users = new ArrayList<>();
+                    users.add(testUser);
+                    sessionRepository.save(new Session().setName("Séance " + round + "-" + i).setDescription("Description")
+                            .setDate(new Date()).setTeacher(testTeacher).setUsers(users));
+                }
+                // Les séances ne doivent pas être servies par le contexte de persistance du test
+                entityManager.flush();
+                entityManager.clear();
+                statistics.clear();
+
+                // Exécution
+                mockMvc.perform(MockMvcRequestBuilders.get("/api/session"))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + testSession.getId() + ")].users[0]")
+                                .value(testUser.getId().intValue()));
+                counts[round] = statistics.getPrepareStatementCount();
+            }
+
+            // Vérification - séances avec leur professeur, puis identifiants des participants
+            assertEquals(2, counts[0]);
+            assertEquals(counts[0], counts[1]);
+        }
+
+        @Test
+        @DisplayName("findById - Doit charger la séance et ses participants en une seule requête")
+        @WithMockUser(username = "user@test.com")
+        void findById_ShouldIssueSingleQuery() throws Exception {
+            // Préparation
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            testSession.getUsers().add(testUser);
+            sessionRepository.save(testSession);
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+
+            // Exécution
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", testSession.getId()))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.users[0]").value(testUser.getId().intValue()));
+
+            // Vérification
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        @DisplayName("findAllSummaries - Doit compter les participants sans les lister, en une requête")
+        @WithMockUser(username = "user@test.com")
+        void findAllSummaries_ShouldCountParticipants() throws Exception {
+            // Préparation - une séance avec un participant, une autre sans
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            testSession.getUsers().add(testUser);
+            sessionRepository.save(testSession);
+            Session empty = sessionRepository.save(new Session().setName("Sans participant").setDescription("Description")
+                    .setDate(new Date()).setTeacher(testTeacher));
+            entityManager.flush();
+            statistics.clear();
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session/summary"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + testSession.getId() + ")].participants").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + testSession.getId() + ")].teacher_id")
+                            .value(testTeacher.getId().intValue()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + empty.getId() + ")].participants").value(0))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].users").doesNotExist())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].description").doesNotExist());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        @DisplayName("findAll - Doit ne retourner que les séances de la fenêtre [from, to)")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldFilterByDateWindow() throws Exception {
+            // Préparation - une séance passée, une dans la fenêtre, une à sa borne haute (exclue)
+            Date start = new Date(testSession.getDate().getTime() + 86400000L);
+            Date end = new Date(start.getTime() + 86400000L);
+            Session inside = sessionRepository.save(new Session().setName("Dans la fenêtre").setDescription("Description")
+                    .setDate(new Date(start.getTime() + 3600000)).setTeacher(testTeacher));
+            Session atEnd = sessionRepository.save(new Session().setName("Borne haute").setDescription("Description")
+                    .setDate(end).setTeacher(testTeacher));
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                    .param("from", start.toInstant().toString())
+                    .param("to", end.toInstant().toString()))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + inside.getId() + ")]").exists())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + atEnd.getId() + ")]").doesNotExist())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + testSession.getId() + ")]").doesNotExist());
+
+            // Sans borne haute : à partir de from, par date
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("from", start.toInstant().toString()))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + atEnd.getId() + ")]").exists())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + testSession.getId() + ")]").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("findAll - Doit combiner professeur, préfixe du nom et places libres")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldCombineFilters() throws Exception {
+            // Préparation - un autre professeur, une séance complète et une dont le nom ne commence pas par le préfixe
+            Teacher other = teacherRepository.save(new Teacher().setFirstName("Anne").setLastName("Autre"));
+            List<User> users = new ArrayList<>();
+            users.add(testUser);
+            Session open = sessionRepository.save(new Session().setName("Hatha_du matin").setDescription("Description")
+                    .setDate(new Date()).setTeacher(testTeacher).setCapacity(2).setUsers(users));
+            Session full = sessionRepository.save(new Session().setName("Hatha_du soir").setDescription("Description")
+                    .setDate(new Date()).setTeacher(testTeacher).setCapacity(1).setUsers(new ArrayList<>(users)));
+            Session otherTeacher = sessionRepository.save(new Session().setName("Hatha_du midi").setDescription("Description")
+                    .setDate(new Date()).setTeacher(other));
+            Session otherName = sessionRepository.save(new Session().setName("HathaXdu midi").setDescription("Description")
+                    .setDate(new Date()).setTeacher(testTeacher));
+
+            // Exécution et vérification - le '_' du préfixe est pris littéralement
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                    .param("teacher_id", testTeacher.getId().toString())
+                    .param("name", "Hatha_")
+                    .param("freeSeats", "true"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(open.getId().intValue()))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].capacity").value(2))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[0].users[0]").value(testUser.getId().intValue()));
+
+            // Sans le filtre des places libres, la séance complète revient
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                    .param("teacher_id", testTeacher.getId().toString())
+                    .param("name", "Hatha_"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + full.getId() + ")]").exists())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + otherTeacher.getId() + ")]").doesNotExist())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + otherName.getId() + ")]").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("findAll - Doit retourner BAD_REQUEST pour des filtres invalides")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldReturnBadRequest_WhenFiltersAreInvalid() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("from", "demain"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session")
+                    .param("from", "2030-02-01T00:00:00Z").param("to", "2030-01-01T00:00:00Z"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("teacher_id", "abc"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("name", ""))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("findUpcoming - Doit omettre les séances passées")
+        @WithMockUser(username = "user@test.com")
+        void findUpcoming_ShouldSkipPastSessions() throws Exception {
+            // Préparation
+            Session past = sessionRepository.save(new Session().setName("Passée").setDescription("Description")
+                    .setDate(new Date(System.currentTimeMillis() - 86400000L)).setTeacher(testTeacher));
+            Session future = sessionRepository.save(new Session().setName("À venir").setDescription("Description")
+                    .setDate(new Date(System.currentTimeMillis() + 86400000L)).setTeacher(testTeacher));
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session/upcoming"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + future.getId() + ")]").exists())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.id == " + past.getId() + ")]").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("findAll - Doit retourner BAD_REQUEST pour un curseur ou une taille invalide")
+        @WithMockUser(username = "user@test.com")
+        void findAll_ShouldReturnBadRequest_WhenPagingParametersAreInvalid() throws Exception {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("cursor", "%%%"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session").param("size", "0"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
         
         @Test
         @DisplayName("create - Doit créer une nouvelle séance")
-        @WithMockUser(username = "user@test.com")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
         void create_ShouldCreateNewSession() throws Exception {
             // Préparation d'un DTO pour la création
             SessionDto newSessionDto = new SessionDto();
@@ -518,7 +891,7 @@ public class SessionControllerTest {
         
         @Test
         @DisplayName("update - Doit mettre à jour une séance existante")
-        @WithMockUser(username = "user@test.com")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
         void update_ShouldUpdateExistingSession() throws Exception {
             // Préparation d'un DTO pour la mise à jour
             SessionDto updateSessionDto = new SessionDto();
@@ -543,7 +916,7 @@ public class SessionControllerTest {
         
         @Test
         @DisplayName("delete - Doit supprimer une séance existante")
-        @WithMockUser(username = "user@test.com")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
         void delete_ShouldDeleteExistingSession() throws Exception {
             // Exécution et vérification
             mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/{id}", testSession.getId()))
@@ -554,6 +927,88 @@ public class SessionControllerTest {
                     .andExpect(MockMvcResultMatchers.status().isNotFound());
         }
         
+        @Test
+        @DisplayName("create - Doit retourner FORBIDDEN pour un utilisateur non administrateur")
+        @WithMockUser(username = "user@test.com")
+        void create_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+            // Préparation d'un DTO pour la création
+            SessionDto newSessionDto = new SessionDto();
+            newSessionDto.setName("Séance refusée");
+            newSessionDto.setDescription("Création tentée sans le rôle administrateur");
+            newSessionDto.setDate(new Date());
+            newSessionDto.setTeacher_id(testTeacher.getId());
+            newSessionDto.setUsers(new ArrayList<>());
+
+            String jsonContent = new com.fasterxml.jackson.databind.ObjectMapper()
+                    .writeValueAsString(newSessionDto);
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(jsonContent))
+                    .andExpect(MockMvcResultMatchers.status().isForbidden());
+        }
+
+        @Test
+        @DisplayName("update - Doit retourner FORBIDDEN pour un utilisateur non administrateur")
+        @WithMockUser(username = "user@test.com")
+        void update_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+            // Préparation d'un DTO pour la mise à jour
+            SessionDto updateSessionDto = new SessionDto();
+            updateSessionDto.setId(testSession.getId());
+            updateSessionDto.setName("Séance modifiée sans droits");
+            updateSessionDto.setDescription("Mise à jour tentée sans le rôle administrateur");
+            updateSessionDto.setDate(testSession.getDate());
+            updateSessionDto.setTeacher_id(testTeacher.getId());
+            updateSessionDto.setUsers(new ArrayList<>());
+
+            String jsonContent = new com.fasterxml.jackson.databind.ObjectMapper()
+                    .writeValueAsString(updateSessionDto);
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", testSession.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(jsonContent))
+                    .andExpect(MockMvcResultMatchers.status().isForbidden());
+        }
+
+        @Test
+        @DisplayName("delete - Doit retourner FORBIDDEN et conserver la séance pour un utilisateur non administrateur")
+        void delete_ShouldReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+            // Préparation - principal réel, tel que reconstruit depuis le token
+            UserDetailsImpl user = UserDetailsImpl.builder()
+                    .id(testUser.getId())
+                    .username(testUser.getEmail())
+                    .admin(false)
+                    .build();
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/{id}", testSession.getId())
+                    .with(SecurityMockMvcRequestPostProcessors.user(user)))
+                    .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+            // La séance n'a pas été supprimée
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", testSession.getId())
+                    .with(SecurityMockMvcRequestPostProcessors.user(user)))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        @Test
+        @DisplayName("delete - Doit autoriser un principal dont l'indicateur admin est positionné")
+        void delete_ShouldDeleteSession_WhenPrincipalIsAdmin() throws Exception {
+            // Préparation - le rôle découle du seul indicateur admin, sans autre lecture
+            UserDetailsImpl admin = UserDetailsImpl.builder()
+                    .id(testUser.getId())
+                    .username(testUser.getEmail())
+                    .admin(true)
+                    .build();
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.delete("/api/session/{id}", testSession.getId())
+                    .with(SecurityMockMvcRequestPostProcessors.user(admin)))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
         @Test
         @DisplayName("participate - Doit ajouter un utilisateur à une séance")
         @WithMockUser(username = "user@test.com")
@@ -5,6 +5,7 @@ import com.openclassrooms.starterjwt.dto.UserDto;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.UserImportService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -47,6 +48,9 @@ public class UserControllerTest {
         @Mock
         private UserMapper userMapper;
 
+        @Mock
+        private UserImportService userImportService;
+
         @Mock
         private SecurityContext securityContext;
 
@@ -313,5 +317,72 @@ public class UserControllerTest {
             mockMvc.perform(MockMvcRequestBuilders.delete("/api/user/{id}", "invalidId"))
                     .andExpect(MockMvcResultMatchers.status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("import - Doit créer les comptes d'un CSV et rapporter les lignes refusées")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+        void import_ShouldCreateUsersAndReportRejectedRows_WhenAdmin() throws Exception {
+            // Préparation - user@test.com existe déjà
+            String csv = "email,firstName,lastName,password\n"
+                    + "new@test.com,Paul,Martin,password1\n"
+                    + "user@test.com,Pierre,Dupont,password2\n"
+                    + "invalid,Anne,Durand,password3\n";
+
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/user/import")
+                            .contentType("text/csv")
+                            .content(csv))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(2))
+                    // Les lignes invalides sont rapportées à la lecture, les emails pris à l'insertion du lot
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].line").value(4))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.errors[1].line").value(3))
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.errors[1].message").value("Email is already taken"));
+
+            // Vérification que le compte a bien été créé, avec un mot de passe haché
+            User imported = userRepository.findByEmail("new@test.com").orElseThrow(AssertionError::new);
+            assertNotEquals("password1", imported.getPassword());
+            assertFalse(imported.getAdmin());
+            assertNotNull(imported.getCreatedAt());
+        }
+
+        @Test
+        @DisplayName("import - Doit accepter un flux NDJSON")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+        void import_ShouldAcceptNdjson_WhenAdmin() throws Exception {
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/user/import")
+                            .contentType("application/x-ndjson")
+                            .content("{\"email\":\"new@test.com\",\"firstName\":\"Paul\",\"lastName\":\"Martin\",\"password\":\"password1\"}\n"))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(1));
+
+            assertTrue(userRepository.findByEmail("new@test.com").isPresent());
+        }
+
+        @Test
+        @DisplayName("import - Doit retourner BAD_REQUEST quand l'en-tête CSV est incomplet")
+        @WithMockUser(username = "admin@test.com", roles = "ADMIN")
+        void import_ShouldReturnBadRequest_WhenCsvHeaderIsMissing() throws Exception {
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/user/import")
+                            .contentType("text/csv")
+                            .content("new@test.com,Paul,Martin,password1\n"))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("import - Doit retourner FORBIDDEN pour un utilisateur non administrateur")
+        @WithMockUser(username = "user@test.com")
+        void import_ShouldReturnForbidden_WhenNotAdmin() throws Exception {
+            // Exécution et vérification
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/user/import")
+                            .contentType("text/csv")
+                            .content("email,firstName,lastName,password\nnew@test.com,Paul,Martin,password1\n"))
+                    .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+            assertFalse(userRepository.findByEmail("new@test.com").isPresent());
+        }
     }
 }
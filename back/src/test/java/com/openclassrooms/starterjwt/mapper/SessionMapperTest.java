@@ -365,6 +365,30 @@ public class SessionMapperTest {
         assertNotNull(result.getUsers());
         assertTrue(result.getUsers().isEmpty());
     }
+
+    @Test
+    @DisplayName("Doit convertir une liste avec les participants fournis, sans lire Session.users")
+    void shouldMapListWithParticipantIds() {
+        // Préparation - une collection qui échoue si elle est parcourue, comme une collection paresseuse hors session
+        Teacher teacher = new Teacher();
+        teacher.setId(2L);
+        Session booked = new Session();
+        booked.setId(1L);
+        booked.setTeacher(teacher);
+        booked.setUsers(mock(List.class, invocation -> { throw new IllegalStateException("lazy"); }));
+        Session empty = new Session();
+        empty.setId(2L);
+
+        // Exécution
+        List<SessionDto> result = sessionMapper.toDto(Arrays.asList(booked, empty),
+                Collections.singletonMap(1L, Arrays.asList(3L, 4L)));
+
+        // Vérifications
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getTeacher_id());
+        assertEquals(Arrays.asList(3L, 4L), result.get(0).getUsers());
+        assertTrue(result.get(1).getUsers().isEmpty());
+    }
     }
     
     // ======= Tests d'Intégration =======
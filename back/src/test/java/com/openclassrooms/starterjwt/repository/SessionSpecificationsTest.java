@@ -0,0 +1,285 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests d'intégration pour SessionSpecifications, et comparaison avec le filtrage côté client
+ * sur un jeu de séances généré
+ */
+@SpringBootTest
+@Transactional
+public class SessionSpecificationsTest {
+    private static final Logger logger = LoggerFactory.getLogger(SessionSpecificationsTest.class);
+
+    private static final int SESSIONS = 2000;
+    // Trois séances par professeur, dont dix dans les 50 premières heures
+    private static final int FEW_SESSIONS = 12;
+    private static final int RUNS = 5;
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2030-01-01T00:00:00Z");
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private List<Teacher> teachers;
+
+    // Préparation - séances toutes les 5 heures sur 4 professeurs ; une sur quatre est complète
+    private void seed(int count) {
+        teachers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            teachers.add(teacherRepository.save(new Teacher().setFirstName("Prof").setLastName("Bench " + i)));
+        }
+        User user = new User();
+        user.setEmail("bench@test.com");
+        user.setFirstName("Bench");
+        user.setLastName("User");
+        user.setPassword("password");
+        user.setAdmin(false);
+        user = userRepository.save(user);
+
+        long start = START.toInstant().toEpochMilli();
+        for (int i = 0; i < count; i++) {
+            List<User> users = new ArrayList<>();
+            if (i % 2 == 0) {
+                users.add(user);
+            }
+            sessionRepository.save(new Session()
+                    .setName("Bench " + (i % 3 == 0 ? "Hatha " : "Vinyasa ") + i)
+                    .setDescription("Séance générée")
+                    .setDate(new Date(start + i * 5L * 3600000L))
+                    .setTeacher(teachers.get(i % teachers.size()))
+                    .setCapacity(i % 4 == 0 ? Integer.valueOf(1) : i % 4 == 1 ? null : Integer.valueOf(10))
+                    .setUsers(users));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private SessionFilter filter() {
+        SessionFilter filter = new SessionFilter();
+        filter.setTeacher_id(teachers.get(1).getId());
+        filter.setFrom(START);
+        filter.setTo(START.plusMonths(1));
+        filter.setName("Bench Hatha");
+        filter.setFreeSeats(true);
+        return filter;
+    }
+
+    private List<Long> ids(List<Session> sessions) {
+        return sessions.stream().map(Session::getId).collect(Collectors.toList());
+    }
+
+    // Ce que faisaient les clients : tout télécharger, puis filtrer
+    private List<Long> fetchAllThenFilter(SessionFilter filter) {
+        List<Session> sessions = sessionService.findAll();
+        Map<Long, List<Long>> participantIds = sessionService.findParticipantIds(sessions);
+        long from = filter.getFrom().toInstant().toEpochMilli();
+        long to = filter.getTo().toInstant().toEpochMilli();
+        return sessions.stream()
+                .filter(session -> session.getTeacher() != null && session.getTeacher().getId().equals(filter.getTeacher_id()))
+                .filter(session -> session.getDate().getTime() >= from && session.getDate().getTime() < to)
+                .filter(session -> session.getName().startsWith(filter.getName()))
+                .filter(session -> session.getCapacity() == null
+                        || session.getCapacity() > participantIds.getOrDefault(session.getId(), Collections.emptyList()).size())
+                .sorted((a, b) -> a.getDate().equals(b.getDate()) ? a.getId().compareTo(b.getId()) : a.getDate().compareTo(b.getDate()))
+                .map(Session::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> filtered(SessionFilter filter) {
+        List<Session> sessions = sessionService.search(filter);
+        sessionService.findParticipantIds(sessions);
+        return ids(sessions);
+    }
+
+    // Meilleur temps sur RUNS exécutions, contexte de persistance vidé à chaque fois
+    private long bestNanos(Supplier<List<Long>> run) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            entityManager.clear();
+            long started = System.nanoTime();
+            run.get();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return best;
+    }
+
+    /**
+     * Spécifications une à une, sur un jeu minimal
+     */
+    @Nested
+    @DisplayName("Spécifications")
+    class SpecificationTests {
+
+        @BeforeEach
+        void setUp() {
+            seed(FEW_SESSIONS);
+        }
+
+        @Test
+        @DisplayName("hasTeacher - Doit ne retenir que les séances du professeur")
+        void hasTeacher_ShouldMatchTeacherOnly() {
+            List<Session> result = sessionRepository.findAll(SessionSpecifications.hasTeacher(teachers.get(2).getId()));
+
+            assertEquals(FEW_SESSIONS / teachers.size(), result.size());
+            assertTrue(result.stream().allMatch(session -> session.getTeacher().getId().equals(teachers.get(2).getId())));
+        }
+
+        @Test
+        @DisplayName("dateFrom / dateBefore - Doivent appliquer une fenêtre semi-ouverte [from, to)")
+        void dateWindow_ShouldBeHalfOpen() {
+            // Préparation - 10 créneaux de 5 heures : la séance posée sur la borne haute est exclue
+            Date from = Date.from(START.toInstant());
+            Date to = Date.from(START.plusHours(50).toInstant());
+
+            // Exécution
+            List<Session> result = sessionRepository.findAll(Specification.where(SessionSpecifications.dateFrom(from))
+                    .and(SessionSpecifications.dateBefore(to)), SessionSpecifications.BY_DATE);
+
+            // Vérification
+            assertEquals(10, result.size());
+            assertEquals(from.getTime(), result.get(0).getDate().getTime());
+        }
+
+        @Test
+        @DisplayName("nameStartsWith - Doit traiter % et _ comme des caractères ordinaires")
+        void nameStartsWith_ShouldEscapeWildcards() {
+            sessionRepository.save(new Session().setName("100%_Yoga").setDescription("Description")
+                    .setDate(new Date()).setTeacher(teachers.get(0)));
+
+            assertEquals(1, sessionRepository.findAll(SessionSpecifications.nameStartsWith("100%_")).size());
+            assertEquals(0, sessionRepository.findAll(SessionSpecifications.nameStartsWith("1_0")).size());
+            assertEquals(0, sessionRepository.findAll(SessionSpecifications.nameStartsWith("%Yoga")).size());
+        }
+
+        @Test
+        @DisplayName("hasFreeSeats - Doit écarter les séances complètes et garder celles sans limite")
+        void hasFreeSeats_ShouldSkipFullSessions() {
+            List<Session> result = sessionRepository.findAll(Specification.where(SessionSpecifications.hasFreeSeats())
+                    .and(SessionSpecifications.nameStartsWith("Bench ")));
+
+            // Une séance sur quatre a une place et un participant
+            assertEquals(FEW_SESSIONS - FEW_SESSIONS / 4, result.size());
+            assertTrue(result.stream().anyMatch(session -> session.getCapacity() == null));
+            assertTrue(result.stream().noneMatch(session -> Integer.valueOf(1).equals(session.getCapacity())));
+        }
+    }
+
+    /**
+     * Comparaison avec le filtrage côté client, sur un jeu assez grand pour que l'écart se mesure
+     */
+    @Nested
+    @DisplayName("Comparaison avec le filtrage côté client")
+    class ComparisonTests {
+
+        @BeforeEach
+        void setUp() {
+            seed(SESSIONS);
+        }
+
+        @Test
+        @DisplayName("search - Doit retourner les mêmes séances que le filtrage côté client, en une requête")
+        void search_ShouldMatchClientSideFilteringInOneQuery() {
+            // Préparation
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            SessionFilter filter = filter();
+            statistics.clear();
+
+            // Exécution
+            List<Session> result = sessionService.search(filter);
+
+            // Vérifications
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertFalse(result.isEmpty());
+            assertEquals(fetchAllThenFilter(filter), ids(result));
+        }
+
+        @Test
+        @DisplayName("search - Doit charger au moins dix fois moins d'entités que tout charger puis filtrer")
+        void search_ShouldLoadFarFewerEntitiesThanFetchAllThenFilter() {
+            // Préparation
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            SessionFilter filter = filter();
+
+            // Exécution - entités chargées par chaque chemin
+            entityManager.clear();
+            statistics.clear();
+            List<Long> expected = fetchAllThenFilter(filter);
+            long fetchAllLoads = statistics.getEntityLoadCount();
+
+            entityManager.clear();
+            statistics.clear();
+            List<Long> result = filtered(filter);
+            long filteredLoads = statistics.getEntityLoadCount();
+
+            // Vérifications
+            assertEquals(expected, result);
+            assertTrue(filteredLoads * 10 < fetchAllLoads);
+        }
+
+        // Temps de réponse des deux chemins, seulement rapporté : dépend trop de la machine pour être vérifié.
+        // Lancement : mvn test -Dtest=SessionSpecificationsTest -Dbenchmark=true
+        @Test
+        @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+        @DisplayName("Benchmark - Temps de réponse du filtrage en SQL comparé à tout charger puis filtrer")
+        void benchmark_FilteredQueryVersusFetchAllThenFilter() {
+            // Préparation - chauffe des deux chemins
+            SessionFilter filter = filter();
+            List<Long> expected = fetchAllThenFilter(filter);
+            assertEquals(expected, filtered(filter));
+
+            // Exécution - meilleur temps de chaque chemin
+            long fetchAllNanos = bestNanos(() -> fetchAllThenFilter(filter));
+            long filteredNanos = bestNanos(() -> filtered(filter));
+
+            // Rapport
+            logger.info("Sessions: {}, matching: {}. Fetch-all-then-filter: {} µs. Filtered query: {} µs.",
+                    SESSIONS, expected.size(), fetchAllNanos / 1000, filteredNanos / 1000);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour CalibratedPasswordEncoder
+ */
+public class CalibratedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Doit encoder avec le coût configuré et vérifier le mot de passe")
+    void shouldEncodeWithConfiguredStrength() {
+        // Préparation
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        // Exécution
+        String hash = encoder.encode("password");
+
+        // Vérifications
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    @DisplayName("Doit vérifier un hash stocké avec un autre coût")
+    void shouldMatchHashWithDifferentStrength() {
+        // Préparation - hash existant à un coût différent
+        String hash = new BCryptPasswordEncoder(4).encode("password");
+
+        // Exécution et vérification
+        assertTrue(new CalibratedPasswordEncoder(5).matches("password", hash));
+    }
+
+    @Test
+    @DisplayName("Doit demander un nouveau hash lorsque le coût stocké est sous le coût fixé")
+    void shouldRequestUpgradeWhenStrengthIsLower() {
+        // Préparation - coût fixé : le plancher est le coût lui-même
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        // Exécution et vérifications
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+    }
+
+    @Test
+    @DisplayName("Ne doit jamais demander de nouveau hash à la baisse")
+    void shouldNotDowngrade() {
+        // Préparation - hash stocké par une instance calibrée plus haut
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5, 4);
+
+        // Exécution et vérification
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("password")));
+    }
+
+    @Test
+    @DisplayName("Doit tolérer un cran d'écart sous le coût calibré, au-dessus du plancher")
+    void shouldTolerateOneStepBelowCalibratedStrength() {
+        // Préparation - calibré à 7, plancher à 4
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(7, 4);
+
+        // Exécution et vérifications
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+    }
+
+    @Test
+    @DisplayName("Doit toujours demander un nouveau hash sous le plancher")
+    void shouldUpgradeBelowFloor() {
+        // Préparation - calibré à 6, plancher à 6 : l'hystérésis ne s'applique pas sous le plancher
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(6, 6);
+
+        // Exécution et vérification
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+    }
+
+    @Test
+    @DisplayName("Ne doit pas demander de nouveau hash pour une valeur qui n'est pas un hash BCrypt")
+    void shouldNotUpgradeUnknownEncoding() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("plain-text"));
+    }
+
+    @Test
+    @DisplayName("Doit choisir le coût le plus élevé respectant la latence cible")
+    void shouldPickHighestStrengthWithinTarget() {
+        // Un hash de sonde (coût 6) à 4 ms : coût 11 = 128 ms, coût 12 = 256 ms
+        assertEquals(11, CalibratedPasswordEncoder.strengthFor(4.0, 250, 4, 31));
+        assertEquals(12, CalibratedPasswordEncoder.strengthFor(4.0, 256, 4, 31));
+    }
+
+    @Test
+    @DisplayName("Doit respecter les bornes minimale et maximale")
+    void shouldClampStrength() {
+        // Machine très lente : le minimum de sécurité s'applique
+        assertEquals(10, CalibratedPasswordEncoder.strengthFor(500.0, 250, 10, 14));
+        // Machine très rapide : le maximum s'applique
+        assertEquals(14, CalibratedPasswordEncoder.strengthFor(0.01, 250, 10, 14));
+    }
+
+    @Test
+    @DisplayName("Doit calibrer un encodeur utilisable dans les bornes données")
+    void shouldCalibrateEncoder() {
+        // Exécution
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.forTargetLatency(50, 4, 8);
+
+        // Vérifications
+        assertTrue(encoder.getStrength() >= 4 && encoder.getStrength() <= 8);
+        assertTrue(encoder.matches("password", encoder.encode("password")));
+    }
+}
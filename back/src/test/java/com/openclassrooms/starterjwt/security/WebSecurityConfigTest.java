@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Tests d'intégration pour WebSecurityConfig : accès aux endpoints actuator
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WebSecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithAnonymousUser
+    @DisplayName("actuator - Doit laisser health accessible sans authentification")
+    void health_ShouldBePublic() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/health"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    @Test
+    @WithAnonymousUser
+    @DisplayName("actuator - Doit refuser les métriques sans authentification")
+    void metrics_ShouldRequireAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "user@test.com")
+    @DisplayName("actuator - Doit refuser les métriques à un utilisateur non administrateur")
+    void metrics_ShouldBeForbiddenToUsers() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/jwt.cache.hits"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "yoga@studio.com", roles = { "USER", "ADMIN" })
+    @DisplayName("actuator - Doit exposer les métriques aux administrateurs")
+    void metrics_ShouldBeAvailableToAdmins() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/jwt.cache.hits"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+}
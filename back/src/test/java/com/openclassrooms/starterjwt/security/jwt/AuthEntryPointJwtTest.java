@@ -5,9 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -20,9 +24,14 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +42,7 @@ import static org.mockito.Mockito.*;
  * Contient à la fois des tests unitaires (tout est mocké) et des tests d'intégration (composants réels)
  */
 public class AuthEntryPointJwtTest {
+    private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwtTest.class);
 
     // ========= TESTS UNITAIRES =========
     @Nested
@@ -51,6 +61,9 @@ public class AuthEntryPointJwtTest {
         @Mock
         private ServletOutputStream outputStream;
 
+        @Spy
+        private SecurityEventRecorder securityEvents = new SecurityEventRecorder(10, 60000, 100);
+
         @InjectMocks
         private AuthEntryPointJwt authEntryPointJwt;
 
@@ -72,6 +85,18 @@ public class AuthEntryPointJwtTest {
             verify(response).setContentType(MediaType.APPLICATION_JSON_VALUE);
             verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         }
+
+        @Test
+        @DisplayName("Doit compter chaque refus dans le SecurityEventRecorder")
+        void shouldRecordUnauthorizedEvent() throws ServletException, IOException {
+            // Exécution
+            authEntryPointJwt.commence(request, response, authException);
+            authEntryPointJwt.commence(request, response, authException);
+
+            // Vérification
+            verify(securityEvents, times(2)).record(SecurityEventRecorder.Reason.UNAUTHORIZED, "/api/test: Unauthorized test message");
+            assertEquals(2, securityEvents.getCount(SecurityEventRecorder.Reason.UNAUTHORIZED));
+        }
         
         @Test
         @DisplayName("Doit envoyer des données JSON avec les informations d'erreur correctes")
@@ -125,7 +150,7 @@ public class AuthEntryPointJwtTest {
 
     // ========= TESTS D'INTÉGRATION =========
     @Nested
-    @SpringBootTest(classes = {AuthEntryPointJwt.class})
+    @SpringBootTest(classes = {AuthEntryPointJwt.class, SecurityEventRecorder.class})
     class IntegrationTests {
 
         @Autowired
@@ -210,5 +235,169 @@ public class AuthEntryPointJwtTest {
             // Vérification que le message est vide
             assertEquals("", jsonResponse.get("message"));
         }
+
+        @Test
+        @DisplayName("Doit échapper les caractères spéciaux et encoder l'UTF-8")
+        void shouldEscapeAndEncodeSpecialCharacters() throws ServletException, IOException {
+            // Configuration d'un message avec guillemets, antislash, retour ligne, accents et emoji
+            String message = "Accès \"refusé\" \\ ligne\nsuivante \uD83E\uDDD8";
+            when(authException.getMessage()).thenReturn(message);
+            request.setServletPath("/api/séance");
+
+            // Exécution de la méthode à tester
+            authEntryPointJwt.commence(request, response, authException);
+
+            // Vérification que le JSON est valide et restitue les valeurs d'origine
+            Map<String, Object> jsonResponse = new ObjectMapper().readValue(response.getContentAsByteArray(),
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {});
+            assertEquals(message, jsonResponse.get("message"));
+            assertEquals("/api/séance", jsonResponse.get("path"));
+        }
+
+        @Test
+        @DisplayName("Doit écrire un message de plusieurs kilo-octets")
+        void shouldWriteLongMessage() throws ServletException, IOException {
+            // Configuration d'un message de plusieurs kilo-octets
+            StringBuilder message = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                message.append("é\"");
+            }
+            when(authException.getMessage()).thenReturn(message.toString());
+
+            // Exécution de la méthode à tester
+            authEntryPointJwt.commence(request, response, authException);
+
+            // Vérification du contenu complet
+            Map<String, Object> jsonResponse = new ObjectMapper().readValue(response.getContentAsByteArray(),
+                new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {});
+            assertEquals(message.toString(), jsonResponse.get("message"));
+            assertEquals("/api/test", jsonResponse.get("path"));
+        }
+
+        @Test
+        @DisplayName("Doit produire exactement le même corps que la sérialisation Jackson")
+        void shouldMatchJacksonSerialization() throws ServletException, IOException {
+            // Exécution de la méthode à tester
+            authEntryPointJwt.commence(request, response, authException);
+
+            // Vérification octet par octet par rapport au corps attendu
+            assertEquals("{\"status\":401,\"error\":\"Unauthorized\",\"message\":\"Unauthorized test message\",\"path\":\"/api/test\"}",
+                new String(response.getContentAsByteArray(), StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("Doit écrire null et les caractères de contrôle comme Jackson")
+        void shouldMatchJacksonForNullAndControlCharacters() throws ServletException, IOException {
+            // Préparation
+            when(authException.getMessage()).thenReturn(null);
+            request.setServletPath("/api/a\tb\u0001");
+            Map<String, Object> body = new java.util.LinkedHashMap<>();
+            body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+            body.put("error", "Unauthorized");
+            body.put("message", null);
+            body.put("path", "/api/a\tb\u0001");
+
+            // Exécution
+            authEntryPointJwt.commence(request, response, authException);
+
+            // Vérification
+            assertEquals(new ObjectMapper().writeValueAsString(body),
+                new String(response.getContentAsByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    // ========= BENCHMARK =========
+    // Octets alloués et temps par réponse 401 : ObjectWriter partagé comparé à l'ancienne
+    // implémentation (HashMap + ObjectMapper par requête). Lancement :
+    // mvn test -Dtest=AuthEntryPointJwtTest -Dbenchmark=true
+    @Nested
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    class Benchmark {
+        private static final int WARMUP = 20_000;
+        private static final int ITERATIONS = 100_000;
+
+        private final AuthEntryPointJwt authEntryPointJwt = new AuthEntryPointJwt(new SecurityEventRecorder(10, 60000, 100));
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest();
+        private final AuthenticationException authException =
+                new org.springframework.security.authentication.InsufficientAuthenticationException(
+                        "Full authentication is required to access this resource");
+
+        // Réponse dont le corps est jeté, pour ne mesurer que le travail de l'entry point
+        private final HttpServletResponse response = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            private final ServletOutputStream discard = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(javax.servlet.WriteListener writeListener) {
+                }
+            };
+
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return discard;
+            }
+        };
+
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        @Test
+        void benchmarkUnauthorizedResponse() throws Exception {
+            request.setServletPath("/api/session");
+            // Au-delà des premiers refus de la fenêtre, l'entry point ne fait plus que compter : l'ancienne
+            // version journalisait chaque refus, ce coût est exclu ici pour ne mesurer que l'écriture du corps
+            Callable<Object> shared = () -> {
+                authEntryPointJwt.commence(request, response, authException);
+                return null;
+            };
+            Callable<Object> legacy = () -> {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                final Map<String, Object> body = new HashMap<>();
+                body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
+                body.put("error", "Unauthorized");
+                body.put("message", authException.getMessage());
+                body.put("path", request.getServletPath());
+                new ObjectMapper().writeValue(response.getOutputStream(), body);
+                return null;
+            };
+
+            long[] sharedResult = measure(shared);
+            long[] legacyResult = measure(legacy);
+
+            logger.info("AuthEntryPointJwt 401: shared writer {} B/op {} ns/op, legacy {} B/op {} ns/op",
+                    sharedResult[0], sharedResult[1], legacyResult[0], legacyResult[1]);
+            assertTrue(sharedResult[0] < legacyResult[0]);
+        }
+
+        // Retourne {octets alloués par appel, nanosecondes par appel}
+        private long[] measure(Callable<Object> writer) throws Exception {
+            for (int i = 0; i < WARMUP; i++) {
+                writer.call();
+            }
+
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                writer.call();
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            return new long[] { allocated / ITERATIONS, elapsed / ITERATIONS };
+        }
     }
 }
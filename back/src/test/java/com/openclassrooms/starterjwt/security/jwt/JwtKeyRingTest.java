@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour JwtKeyRing
+ */
+public class JwtKeyRingTest {
+
+    @Test
+    @DisplayName("Doit signer avec la première clé configurée et vérifier avec toutes les autres")
+    void shouldUseFirstSigningKeyAndKeepOthersForVerification() throws Exception {
+        // Préparation
+        KeyPair current = generateKeyPair();
+        KeyPair previous = generateKeyPair();
+        KeyPair external = generateKeyPair();
+
+        // Exécution
+        JwtKeyRing keyRing = new JwtKeyRing(
+                "2024-02:" + encode(current.getPrivate().getEncoded()) + ", 2024-01:" + encode(previous.getPrivate().getEncoded()),
+                "partner:" + encode(external.getPublic().getEncoded()),
+                false);
+
+        // Vérifications
+        assertEquals("2024-02", keyRing.getSigningKid());
+        assertEquals(current.getPrivate(), keyRing.getSigningKey());
+        assertEquals(current.getPublic(), keyRing.getVerificationKey("2024-02"));
+        assertEquals(previous.getPublic(), keyRing.getVerificationKey("2024-01"));
+        assertEquals(external.getPublic(), keyRing.getVerificationKey("partner"));
+        assertNull(keyRing.getVerificationKey("unknown"));
+        assertNull(keyRing.getVerificationKey(null));
+    }
+
+    @Test
+    @DisplayName("Doit générer une clé éphémère lorsqu'aucune clé n'est configurée, en dev ou en test")
+    void shouldGenerateEphemeralKey() {
+        // Exécution
+        JwtKeyRing keyRing = new JwtKeyRing("", "", true);
+
+        // Vérifications
+        assertNotNull(keyRing.getSigningKid());
+        assertNotNull(keyRing.getSigningKey());
+        assertNotNull(keyRing.getVerificationKey(keyRing.getSigningKid()));
+    }
+
+    @Test
+    @DisplayName("Doit refuser de démarrer sans clé configurée hors dev et test")
+    void shouldRequireSigningKeysOutsideDevAndTest() {
+        // Exécution et vérification
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("", "", false));
+    }
+
+    @Test
+    @DisplayName("Doit publier le modulus et l'exposant de chaque clé au format JWKS")
+    @SuppressWarnings("unchecked")
+    void shouldExposeJwks() throws Exception {
+        // Préparation
+        KeyPair keyPair = generateKeyPair();
+        JwtKeyRing keyRing = new JwtKeyRing("k1:" + encode(keyPair.getPrivate().getEncoded()), "", false);
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+
+        // Exécution
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) keyRing.getJwks().get("keys");
+
+        // Vérifications
+        assertEquals(1, keys.size());
+        Map<String, Object> jwk = keys.get(0);
+        assertEquals("RSA", jwk.get("kty"));
+        assertEquals("RS256", jwk.get("alg"));
+        assertEquals("k1", jwk.get("kid"));
+        assertEquals(publicKey.getModulus(), decodeUnsigned((String) jwk.get("n")));
+        assertEquals(publicKey.getPublicExponent(), decodeUnsigned((String) jwk.get("e")));
+        assertEquals("AQAB", jwk.get("e"));
+        assertThrows(UnsupportedOperationException.class, () -> keys.clear());
+    }
+
+    @Test
+    @DisplayName("Doit refuser une entrée sans kid")
+    void shouldRejectEntryWithoutKid() {
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("MIIEvQIBADANBg", "", false));
+    }
+
+    @Test
+    @DisplayName("Doit refuser une clé illisible")
+    void shouldRejectInvalidKey() {
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("k1:not-base64!", "", false));
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing("", "k1:" + encode(new byte[] { 1, 2, 3 }), true));
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static BigInteger decodeUnsigned(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
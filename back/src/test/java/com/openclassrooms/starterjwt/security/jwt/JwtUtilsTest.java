@@ -1,6 +1,12 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -9,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -18,6 +25,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -28,6 +36,10 @@ import static org.mockito.Mockito.when;
  */
 class JwtUtilsTest {
 
+    // Générées une seule fois : la création d'une paire RSA coûte plusieurs dizaines de millisecondes
+    private static final JwtKeyRing KEY_RING = new JwtKeyRing("", "", true);
+    private static final JwtKeyRing OTHER_KEY_RING = new JwtKeyRing("", "", true);
+
     // ========= TESTS UNITAIRES =========
     @Nested
     @ExtendWith(MockitoExtension.class)
@@ -36,6 +48,9 @@ class JwtUtilsTest {
         @InjectMocks
         private JwtUtils jwtUtils;
 
+        @Spy
+        private SecurityEventRecorder securityEvents = new SecurityEventRecorder(10, 60000, 100);
+
         @Mock
         private Authentication authentication;
 
@@ -49,8 +64,10 @@ class JwtUtilsTest {
         @BeforeEach
         void setUp() {
             // Injecter nos valeurs de test dans JwtUtils
-            ReflectionTestUtils.setField(jwtUtils, "jwtSecret", testSecret);
             ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", testExpirationMs);
+            ReflectionTestUtils.setField(jwtUtils, "keyRing", KEY_RING);
+            // Hors contexte Spring, @PostConstruct n'est pas appelé : on construit le parser à la main
+            jwtUtils.init();
             
             // Pas de configuration des mocks ici pour éviter UnnecessaryStubbingException
             // Les mocks seront configurés spécifiquement dans les tests qui en ont besoin
@@ -76,6 +93,36 @@ class JwtUtilsTest {
                 assertEquals(username, jwtUtils.getUserNameFromJwtToken(token));
                 assertTrue(jwtUtils.validateJwtToken(token));
             }
+
+            @Test
+            @DisplayName("Doit attribuer un identifiant (jti) unique à chaque token")
+            void shouldGenerateUniqueTokenId() {
+                // Configuration spécifique des mocks nécessaires pour ce test
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn(username);
+
+                // Exécution
+                String firstId = jwtUtils.verify(jwtUtils.generateJwtToken(authentication)).getClaims().getId();
+                String secondId = jwtUtils.verify(jwtUtils.generateJwtToken(authentication)).getClaims().getId();
+
+                // Vérifications
+                assertNotNull(firstId);
+                assertNotEquals(firstId, secondId);
+            }
+        }
+
+        @Nested
+        @DisplayName("Tests d'extraction du token depuis l'en-tête Authorization")
+        class ParseBearerTokenTests {
+
+            @Test
+            @DisplayName("Doit extraire le token d'un en-tête Bearer, et ignorer les autres")
+            void shouldParseBearerHeader() {
+                assertEquals("abc.def.ghi", JwtUtils.parseBearerToken("Bearer abc.def.ghi"));
+                assertNull(JwtUtils.parseBearerToken("Basic abc"));
+                assertNull(JwtUtils.parseBearerToken(""));
+                assertNull(JwtUtils.parseBearerToken(null));
+            }
         }
 
         @Nested
@@ -193,6 +240,168 @@ class JwtUtilsTest {
              * circonstances très spécifiques qui sortent du cadre de nos tests unitaires.
              */
         }
+
+        @Nested
+        @DisplayName("Tests de vérification en une seule passe")
+        class VerifyTests {
+
+            @Test
+            @DisplayName("Doit retourner les claims d'un token valide")
+            void shouldReturnClaimsForValidToken() {
+                // Configuration spécifique des mocks nécessaires pour ce test
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn(username);
+
+                // Préparation
+                String token = jwtUtils.generateJwtToken(authentication);
+
+                // Exécution
+                JwtVerification verification = jwtUtils.verify(token);
+
+                // Vérifications
+                assertTrue(verification.isValid());
+                assertEquals(JwtVerification.Status.VALID, verification.getStatus());
+                assertEquals(username, verification.getClaims().getSubject());
+            }
+
+            @Test
+            @DisplayName("Doit signer en RS256 avec le kid de la clé active, vérifiable avec la seule clé publique")
+            void shouldSignWithRs256AndKeyId() {
+                // Configuration spécifique des mocks nécessaires pour ce test
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn(username);
+
+                // Exécution
+                String token = jwtUtils.generateJwtToken(authentication);
+
+                // Vérifications - comme le ferait un service tiers à partir du JWKS
+                Jws<Claims> jws = Jwts.parser()
+                        .setSigningKey(KEY_RING.getVerificationKey(KEY_RING.getSigningKid()))
+                        .parseClaimsJws(token);
+                assertEquals(KEY_RING.getSigningKid(), jws.getHeader().getKeyId());
+                assertEquals("RS256", jws.getHeader().getAlgorithm());
+                assertEquals(username, jws.getBody().getSubject());
+            }
+
+            @Test
+            @DisplayName("Doit refuser un token signé par une clé hors du trousseau")
+            void shouldRejectUnknownKeyId() {
+                // Préparation
+                String token = Jwts.builder()
+                        .setHeaderParam(JwsHeader.KEY_ID, OTHER_KEY_RING.getSigningKid())
+                        .setSubject(username)
+                        .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                        .signWith(SignatureAlgorithm.RS256, OTHER_KEY_RING.getSigningKey())
+                        .compact();
+
+                // Exécution et vérification
+                assertEquals(JwtVerification.Status.INVALID_SIGNATURE, jwtUtils.verify(token).getStatus());
+            }
+
+            @Test
+            @DisplayName("Doit refuser un token HMAC qui se réclame d'une clé RSA du trousseau")
+            void shouldRejectAlgorithmMismatch() {
+                // Préparation
+                String token = Jwts.builder()
+                        .setHeaderParam(JwsHeader.KEY_ID, KEY_RING.getSigningKid())
+                        .setSubject(username)
+                        .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                        .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(testSecret))
+                        .compact();
+
+                // Exécution et vérification
+                assertEquals(JwtVerification.Status.UNSUPPORTED, jwtUtils.verify(token).getStatus());
+            }
+
+            @Test
+            @DisplayName("Doit refuser un ancien token HS512 sans kid")
+            void shouldRejectLegacyHmacToken() {
+                // Préparation
+                String token = Jwts.builder()
+                        .setSubject(username)
+                        .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                        .signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(testSecret))
+                        .compact();
+
+                // Exécution et vérification
+                assertEquals(JwtVerification.Status.INVALID_SIGNATURE, jwtUtils.verify(token).getStatus());
+            }
+
+            @Test
+            @DisplayName("Doit reconstruire le principal à partir des claims du token")
+            void shouldRebuildUserDetailsFromClaims() {
+                // Configuration spécifique des mocks nécessaires pour ce test
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn(username);
+                when(userDetails.getId()).thenReturn(42L);
+                when(userDetails.getFirstName()).thenReturn("Jean");
+                when(userDetails.getLastName()).thenReturn("Dupont");
+                when(userDetails.getAdmin()).thenReturn(true);
+
+                // Préparation
+                String token = jwtUtils.generateJwtToken(authentication);
+
+                // Exécution
+                UserDetailsImpl principal = jwtUtils.getUserDetailsFromClaims(jwtUtils.verify(token).getClaims());
+
+                // Vérifications
+                assertNotNull(principal);
+                assertEquals(42L, principal.getId());
+                assertEquals(username, principal.getUsername());
+                assertEquals("Jean", principal.getFirstName());
+                assertEquals("Dupont", principal.getLastName());
+                assertTrue(principal.getAdmin());
+                assertNull(principal.getPassword());
+            }
+
+            @Test
+            @DisplayName("Doit retourner null pour un ancien token sans identifiant")
+            void shouldReturnNullForLegacyClaims() {
+                // Exécution et vérification
+                assertNull(jwtUtils.getUserDetailsFromClaims(Jwts.claims().setSubject(username)));
+            }
+
+            @Test
+            @DisplayName("Doit indiquer EXPIRED pour un token expiré")
+            void shouldReportExpiredToken() {
+                // Configuration spécifique des mocks nécessaires pour ce test
+                when(authentication.getPrincipal()).thenReturn(userDetails);
+                when(userDetails.getUsername()).thenReturn(username);
+
+                // Préparation - token déjà expiré
+                ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -60000);
+                String expiredToken = jwtUtils.generateJwtToken(authentication);
+                ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", testExpirationMs);
+
+                // Exécution
+                JwtVerification verification = jwtUtils.verify(expiredToken);
+
+                // Vérifications
+                assertFalse(verification.isValid());
+                assertEquals(JwtVerification.Status.EXPIRED, verification.getStatus());
+                assertNull(verification.getClaims());
+            }
+
+            @Test
+            @DisplayName("Doit indiquer MALFORMED pour un token mal formé")
+            void shouldReportMalformedToken() {
+                // Exécution
+                JwtVerification verification = jwtUtils.verify("malformed.jwt.token");
+
+                // Vérifications
+                assertFalse(verification.isValid());
+                assertEquals(JwtVerification.Status.MALFORMED, verification.getStatus());
+                // L'échec est compté par motif, sans log ERROR systématique
+                assertEquals(1, securityEvents.getCount(SecurityEventRecorder.Reason.MALFORMED));
+            }
+
+            @Test
+            @DisplayName("Doit indiquer EMPTY pour un token vide")
+            void shouldReportEmptyToken() {
+                // Exécution et vérification
+                assertEquals(JwtVerification.Status.EMPTY, jwtUtils.verify("").getStatus());
+            }
+        }
     }
 
     // ========= TESTS D'INTÉGRATION =========
@@ -0,0 +1,97 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SecurityEventRecorder
+ */
+public class SecurityEventRecorderTest {
+
+    @Test
+    @DisplayName("Doit compter chaque événement par motif")
+    void shouldCountEventsByReason() {
+        // Préparation
+        SecurityEventRecorder recorder = new SecurityEventRecorder(10, 60000, 0);
+
+        // Exécution
+        recorder.record(SecurityEventRecorder.Reason.EXPIRED, "expired");
+        recorder.record(SecurityEventRecorder.Reason.EXPIRED, "expired");
+        recorder.record(SecurityEventRecorder.Reason.MALFORMED, "malformed");
+
+        // Vérifications
+        assertEquals(2, recorder.getCount(SecurityEventRecorder.Reason.EXPIRED));
+        assertEquals(1, recorder.getCount(SecurityEventRecorder.Reason.MALFORMED));
+        assertEquals(0, recorder.getCount(SecurityEventRecorder.Reason.INVALID_SIGNATURE));
+    }
+
+    @Test
+    @DisplayName("Doit limiter le nombre de logs par motif et par fenêtre")
+    void shouldRateLimitLogsPerReason() {
+        // Préparation - 3 logs par motif et par heure, sans échantillonnage
+        SecurityEventRecorder recorder = new SecurityEventRecorder(3, 3600000, 0);
+
+        // Exécution
+        for (int i = 0; i < 100; i++) {
+            recorder.record(SecurityEventRecorder.Reason.EXPIRED, "expired");
+        }
+        recorder.record(SecurityEventRecorder.Reason.MALFORMED, "malformed");
+
+        // Vérifications - le quota d'un motif n'affecte pas les autres
+        assertEquals(100, recorder.getCount(SecurityEventRecorder.Reason.EXPIRED));
+        assertEquals(97, recorder.getSuppressedCount(SecurityEventRecorder.Reason.EXPIRED));
+        assertEquals(0, recorder.getSuppressedCount(SecurityEventRecorder.Reason.MALFORMED));
+    }
+
+    @Test
+    @DisplayName("Doit encore journaliser un événement sur N au-delà du quota")
+    void shouldSampleEventsOverQuota() {
+        // Préparation - 3 logs par heure, puis un sur 10
+        SecurityEventRecorder recorder = new SecurityEventRecorder(3, 3600000, 10);
+
+        // Exécution
+        for (int i = 0; i < 103; i++) {
+            recorder.record(SecurityEventRecorder.Reason.EXPIRED, "expired");
+        }
+
+        // Vérifications - 3 sous le quota et 10 échantillonnés parmi les 100 suivants
+        assertEquals(103, recorder.getCount(SecurityEventRecorder.Reason.EXPIRED));
+        assertEquals(90, recorder.getSuppressedCount(SecurityEventRecorder.Reason.EXPIRED));
+    }
+
+    @Test
+    @DisplayName("Doit rouvrir le quota de logs à chaque nouvelle fenêtre")
+    void shouldReopenWindow() {
+        // Préparation - fenêtre nulle : chaque événement ouvre une nouvelle fenêtre
+        SecurityEventRecorder recorder = new SecurityEventRecorder(1, 0, 0);
+
+        // Exécution
+        for (int i = 0; i < 10; i++) {
+            recorder.record(SecurityEventRecorder.Reason.EXPIRED, "expired");
+        }
+
+        // Vérification
+        assertEquals(0, recorder.getSuppressedCount(SecurityEventRecorder.Reason.EXPIRED));
+    }
+
+    @Test
+    @DisplayName("Doit exposer les totaux par motif dans les métriques")
+    void shouldBindMetrics() {
+        // Préparation
+        SecurityEventRecorder recorder = new SecurityEventRecorder(1, 3600000, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        recorder.bindTo(registry);
+
+        // Exécution
+        recorder.record(SecurityEventRecorder.Reason.INVALID_SIGNATURE, "bad signature");
+        recorder.record(SecurityEventRecorder.Reason.INVALID_SIGNATURE, "bad signature");
+
+        // Vérifications
+        assertEquals(2.0, registry.get("security.jwt.rejected").tag("reason", "invalid_signature").functionCounter().count());
+        assertEquals(1.0, registry.get("security.jwt.rejected.unlogged").tag("reason", "invalid_signature").functionCounter().count());
+        assertEquals(0.0, registry.get("security.jwt.rejected").tag("reason", "expired").functionCounter().count());
+    }
+}
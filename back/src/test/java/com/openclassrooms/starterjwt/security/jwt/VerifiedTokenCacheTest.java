@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour VerifiedTokenCache
+ */
+public class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+    private UsernamePasswordAuthenticationToken authentication;
+    private Date inOneMinute;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(3);
+        authentication = new UsernamePasswordAuthenticationToken("user@test.com", null, new ArrayList<>());
+        inOneMinute = new Date(System.currentTimeMillis() + 60000);
+    }
+
+    @Test
+    @DisplayName("Doit retourner l'authentification mise en cache, avec son jti, et compter les hits/miss")
+    void shouldReturnCachedAuthentication() {
+        // Premier accès : absent du cache
+        assertNull(cache.get("token"));
+
+        // Mise en cache puis second accès
+        cache.put("token", authentication, "jti", inOneMinute, System.currentTimeMillis());
+        VerifiedTokenCache.Entry entry = cache.get("token");
+        assertSame(authentication, entry.getAuthentication());
+        assertEquals("jti", entry.getTokenId());
+
+        // Vérification des compteurs
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Doit évincer une entrée dont le token est expiré")
+    void shouldEvictExpiredEntry() {
+        // Préparation - token expiré depuis une seconde
+        cache.put("expired", authentication, "jti", new Date(System.currentTimeMillis() - 1000), System.currentTimeMillis());
+
+        // Exécution et vérification
+        assertNull(cache.get("expired"));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas dépasser la taille maximale")
+    void shouldStayBounded() {
+        // Préparation - plus d'entrées que la capacité du cache
+        for (int i = 0; i < 10; i++) {
+            cache.put("token" + i, authentication, "jti", inOneMinute, System.currentTimeMillis());
+        }
+
+        // Vérifications
+        assertEquals(3, cache.size());
+        assertEquals(7, cache.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Ne doit rien mettre en cache pour un token sans expiration")
+    void shouldIgnoreTokenWithoutExpiration() {
+        cache.put("token", authentication, "jti", null, System.currentTimeMillis());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Doit supprimer une entrée invalidée")
+    void shouldInvalidateEntry() {
+        cache.put("token", authentication, "jti", inOneMinute, System.currentTimeMillis());
+
+        cache.invalidate("token");
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    @DisplayName("Doit supporter des accès concurrents")
+    void shouldSupportConcurrentAccess() throws InterruptedException {
+        // Préparation
+        VerifiedTokenCache largeCache = new VerifiedTokenCache(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+
+        // Exécution - chaque thread écrit puis relit ses propres tokens
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 100; i++) {
+                    String token = "token-" + thread + "-" + i;
+                    largeCache.put(token, authentication, "jti", inOneMinute, System.currentTimeMillis());
+                    largeCache.get(token);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Vérifications
+        assertEquals(800, largeCache.size());
+        assertEquals(800, largeCache.getHits());
+    }
+
+    @Test
+    @DisplayName("Doit exposer ses compteurs dans le registre de métriques")
+    void shouldBindMetrics() {
+        // Préparation
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Exécution
+        cache.put("token", authentication, "jti", inOneMinute, System.currentTimeMillis());
+        cache.get("token");
+        cache.get("unknown");
+
+        // Vérifications
+        assertEquals(1.0, registry.get("jwt.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("jwt.cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("jwt.cache.size").gauge().value());
+    }
+}
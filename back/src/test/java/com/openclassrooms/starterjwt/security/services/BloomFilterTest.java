@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour BloomFilter
+ */
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("Doit toujours reconnaître une valeur ajoutée")
+    void shouldContainInsertedValues() {
+        // Préparation
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        // Vérification - aucun faux négatif
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Doit répondre non pour une valeur jamais ajoutée à un filtre vide")
+    void shouldNotContainOnEmptyFilter() {
+        assertFalse(new BloomFilter(1000, 0.01).mightContain("unknown"));
+    }
+
+    @Test
+    @DisplayName("Doit rester proche du taux de faux positifs demandé")
+    void shouldRespectFalsePositiveRate() {
+        // Préparation - filtre rempli à sa capacité nominale
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("inserted-" + i);
+        }
+
+        // Exécution
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Vérification - marge large autour des 1 % attendus
+        assertTrue(falsePositives < 300, "Faux positifs : " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Doit dimensionner le filtre selon la capacité et le taux demandés")
+    void shouldSizeFilter() {
+        // 10 000 valeurs à 1 % : environ 96 000 bits et 7 fonctions de hachage
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+
+        assertEquals(7, filter.getHashFunctions());
+        assertTrue(filter.getBitCount() >= 95851 && filter.getBitCount() < 95851 + 64);
+    }
+}
@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LoginExecutor
+ */
+public class LoginExecutorTest {
+
+    private LoginExecutor loginExecutor;
+
+    @BeforeEach
+    void setUp() {
+        // Un thread et une file d'une seule place pour pouvoir saturer facilement le pool
+        loginExecutor = new LoginExecutor(1, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Doit exécuter la tâche sur un thread du pool de login et retourner son résultat")
+    void shouldRunTaskOnLoginThread() {
+        // Exécution
+        String threadName = loginExecutor.execute(() -> Thread.currentThread().getName());
+
+        // Vérification
+        assertTrue(threadName.startsWith("login-"));
+    }
+
+    @Test
+    @DisplayName("Doit propager les exceptions d'authentification telles quelles")
+    void shouldPropagateRuntimeException() {
+        // Exécution et vérification
+        assertThrows(BadCredentialsException.class, () -> loginExecutor.execute(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    @DisplayName("Doit rejeter immédiatement une tâche lorsque le pool et la file sont pleins")
+    void shouldRejectWhenSaturated() throws InterruptedException {
+        // Préparation - une tâche bloque l'unique thread, une seconde occupe la file
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        callers.execute(() -> loginExecutor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.execute(() -> loginExecutor.execute(() -> null));
+        waitForQueueDepth(1);
+
+        // Exécution et vérification
+        assertThrows(RejectedExecutionException.class, () -> loginExecutor.execute(() -> null));
+        assertEquals(1, loginExecutor.getRejectedCount());
+        assertEquals(2, loginExecutor.getRetryAfterSeconds());
+
+        // Nettoyage
+        release.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Doit exposer la profondeur de file et le temps de vérification")
+    void shouldBindMetrics() {
+        // Préparation
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        loginExecutor.bindTo(registry);
+
+        // Exécution
+        loginExecutor.execute(() -> "ok");
+
+        // Vérifications
+        assertEquals(0.0, registry.get("auth.login.queue.depth").gauge().value());
+        assertEquals(1.0, registry.get("auth.login.verification").functionTimer().count());
+        assertEquals(0.0, registry.get("auth.login.rejected").functionCounter().count());
+    }
+
+    private void waitForQueueDepth(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loginExecutor.getQueueDepth() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, loginExecutor.getQueueDepth());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
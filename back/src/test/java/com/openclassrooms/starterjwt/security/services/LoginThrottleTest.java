@@ -0,0 +1,181 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour LoginThrottle
+ */
+public class LoginThrottleTest {
+
+    private static final String EMAIL = "user@test.com";
+    private static final String IP = "10.0.0.1";
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        // Blocage à partir de 3 échecs (email et IP), délai de base d'une minute, fenêtre de décroissance d'une heure
+        loginThrottle = new LoginThrottle(3, 3, 60000, 600000, 3600000, 1000);
+    }
+
+    @Test
+    @DisplayName("Doit autoriser les tentatives tant que le seuil n'est pas atteint")
+    void shouldAllowBelowThreshold() {
+        // Préparation
+        loginThrottle.recordFailure(EMAIL, IP);
+        loginThrottle.recordFailure(EMAIL, IP);
+
+        // Exécution et vérification
+        assertEquals(0, loginThrottle.retryAfterMillis(EMAIL, IP));
+        assertEquals(2, loginThrottle.getFailureCount());
+        assertEquals(0, loginThrottle.getThrottledCount());
+    }
+
+    @Test
+    @DisplayName("Doit bloquer l'email et l'IP une fois le seuil atteint")
+    void shouldBlockEmailAndIpAtThreshold() {
+        // Préparation
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure(EMAIL, IP);
+        }
+
+        // Exécution et vérifications
+        // L'email est bloqué quelle que soit l'IP, et l'IP quel que soit l'email
+        assertTrue(loginThrottle.retryAfterMillis(EMAIL, "10.0.0.2") > 0);
+        assertTrue(loginThrottle.retryAfterMillis("other@test.com", IP) > 0);
+        assertEquals(0, loginThrottle.retryAfterMillis("other@test.com", "10.0.0.2"));
+        assertEquals(2, loginThrottle.getThrottledCount());
+    }
+
+    @Test
+    @DisplayName("Doit doubler le délai à chaque échec au-delà du seuil, sans dépasser le maximum")
+    void shouldBackOffExponentially() {
+        // Préparation
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure(EMAIL, null);
+        }
+        long firstDelay = loginThrottle.retryAfterMillis(EMAIL, null);
+        loginThrottle.recordFailure(EMAIL, null);
+        long secondDelay = loginThrottle.retryAfterMillis(EMAIL, null);
+        for (int i = 0; i < 10; i++) {
+            loginThrottle.recordFailure(EMAIL, null);
+        }
+        long cappedDelay = loginThrottle.retryAfterMillis(EMAIL, null);
+
+        // Vérifications
+        assertTrue(firstDelay > 59000 && firstDelay <= 60000);
+        assertTrue(secondDelay > 119000 && secondDelay <= 120000);
+        assertTrue(cappedDelay > 599000 && cappedDelay <= 600000);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer la casse de l'email")
+    void shouldIgnoreEmailCase() {
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure("USER@test.com", null);
+        }
+
+        assertTrue(loginThrottle.retryAfterMillis(EMAIL, null) > 0);
+    }
+
+    @Test
+    @DisplayName("Doit réinitialiser le compteur de l'email après un login réussi")
+    void shouldResetEmailOnSuccess() {
+        // Préparation
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure(EMAIL, null);
+        }
+
+        // Exécution
+        loginThrottle.recordSuccess(EMAIL, null);
+
+        // Vérification
+        assertEquals(0, loginThrottle.retryAfterMillis(EMAIL, null));
+    }
+
+    @Test
+    @DisplayName("Doit diviser par deux le compteur de l'IP après un login réussi")
+    void shouldDecayIpOnSuccess() {
+        // Préparation - 4 échecs depuis l'IP, sur des emails différents
+        for (int i = 0; i < 4; i++) {
+            loginThrottle.recordFailure("user" + i + "@test.com", IP);
+        }
+
+        // Exécution
+        loginThrottle.recordSuccess(EMAIL, IP);
+
+        // Vérifications
+        // 2 échecs restants : sous le seuil, l'IP est débloquée mais pas oubliée
+        assertEquals(0, loginThrottle.retryAfterMillis(EMAIL, IP));
+        loginThrottle.recordFailure(EMAIL, IP);
+        assertTrue(loginThrottle.retryAfterMillis("other@test.com", IP) > 0);
+    }
+
+    @Test
+    @DisplayName("Doit appliquer à l'IP un seuil plus haut qu'à l'email")
+    void shouldUseHigherThresholdForIp() {
+        // Préparation - 3 échecs par email, 10 par IP
+        LoginThrottle sharedIpThrottle = new LoginThrottle(3, 10, 60000, 600000, 3600000, 1000);
+        for (int i = 0; i < 9; i++) {
+            sharedIpThrottle.recordFailure("user" + (i % 3) + "@test.com", IP);
+        }
+
+        // Exécution et vérifications
+        // Les emails ayant atteint leur seuil sont bloqués, l'IP partagée ne l'est pas encore
+        assertTrue(sharedIpThrottle.retryAfterMillis("user0@test.com", null) > 0);
+        assertEquals(0, sharedIpThrottle.retryAfterMillis("other@test.com", IP));
+        sharedIpThrottle.recordFailure("user3@test.com", IP);
+        assertTrue(sharedIpThrottle.retryAfterMillis("other@test.com", IP) > 0);
+    }
+
+    @Test
+    @DisplayName("Doit oublier les échecs après la fenêtre de décroissance")
+    void shouldDecayFailures() {
+        // Préparation - fenêtre de décroissance nulle : chaque échec est oublié immédiatement
+        LoginThrottle decayingThrottle = new LoginThrottle(1, 1, 60000, 600000, 0, 1000);
+        decayingThrottle.recordFailure(EMAIL, IP);
+
+        // Exécution et vérifications
+        assertEquals(0, decayingThrottle.retryAfterMillis(EMAIL, IP));
+        assertEquals(0, decayingThrottle.trackedKeys());
+    }
+
+    @Test
+    @DisplayName("Doit borner le nombre de compteurs conservés")
+    void shouldBoundMemory() {
+        // Préparation - 16 segments de 2 entrées au plus
+        LoginThrottle boundedThrottle = new LoginThrottle(3, 3, 60000, 600000, 3600000, 32);
+
+        // Exécution
+        for (int i = 0; i < 1000; i++) {
+            boundedThrottle.recordFailure("user" + i + "@test.com", null);
+        }
+
+        // Vérification
+        assertTrue(boundedThrottle.trackedKeys() <= 32);
+    }
+
+    @Test
+    @DisplayName("Doit exposer séparément les échecs et les rejets")
+    void shouldBindMetrics() {
+        // Préparation
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        loginThrottle.bindTo(registry);
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure(EMAIL, IP);
+        }
+
+        // Exécution
+        loginThrottle.retryAfterMillis(EMAIL, IP);
+
+        // Vérifications
+        assertEquals(3.0, registry.get("auth.login.failures").functionCounter().count());
+        assertEquals(1.0, registry.get("auth.login.throttled").functionCounter().count());
+        assertEquals(2.0, registry.get("auth.login.throttle.keys").gauge().value());
+    }
+}
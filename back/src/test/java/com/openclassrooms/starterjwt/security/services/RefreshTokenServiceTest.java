@@ -0,0 +1,125 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RefreshTokenService
+ */
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 3600000);
+    }
+
+    private RefreshToken stored(String value, boolean revoked, Date expiresAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .tokenHash(RefreshTokenService.hash(value))
+                .userId(1L)
+                .familyId("family")
+                .expiresAt(expiresAt)
+                .revoked(revoked)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Doit stocker uniquement l'empreinte du token émis")
+    void shouldStoreHashOnly() {
+        // Exécution
+        String token = refreshTokenService.issue(1L);
+
+        // Vérifications
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals(RefreshTokenService.hash(token), captor.getValue().getTokenHash());
+        assertNotEquals(token, captor.getValue().getTokenHash());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertFalse(captor.getValue().isRevoked());
+    }
+
+    @Test
+    @DisplayName("Doit consommer le token présenté et en émettre un nouveau dans la même chaîne")
+    void shouldRotateToken() {
+        // Préparation
+        RefreshToken current = stored("current", false, new Date(System.currentTimeMillis() + 60000));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("current"))).thenReturn(Optional.of(current));
+
+        // Exécution
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate("current");
+
+        // Vérifications
+        assertTrue(rotation.isPresent());
+        assertEquals(1L, rotation.get().getUserId());
+        assertNotEquals("current", rotation.get().getRefreshToken());
+        assertTrue(current.isRevoked());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals("family", captor.getValue().getFamilyId());
+    }
+
+    @Test
+    @DisplayName("Doit révoquer toute la chaîne lorsqu'un token déjà consommé est présenté")
+    void shouldRevokeFamilyOnReuse() {
+        // Préparation
+        RefreshToken used = stored("used", true, new Date(System.currentTimeMillis() + 60000));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("used"))).thenReturn(Optional.of(used));
+
+        // Exécution et vérifications
+        assertFalse(refreshTokenService.rotate("used").isPresent());
+        verify(refreshTokenRepository).revokeFamily("family");
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("Doit refuser un token inconnu ou expiré")
+    void shouldRejectUnknownOrExpiredToken() {
+        // Préparation
+        RefreshToken expired = stored("expired", false, new Date(System.currentTimeMillis() - 1000));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired"))).thenReturn(Optional.of(expired));
+
+        // Exécution et vérifications
+        assertFalse(refreshTokenService.rotate("unknown").isPresent());
+        assertFalse(refreshTokenService.rotate("expired").isPresent());
+        assertFalse(refreshTokenService.rotate(null).isPresent());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    @DisplayName("Doit révoquer toute la chaîne du token présenté à la déconnexion")
+    void shouldRevokeFamilyOnLogout() {
+        // Préparation
+        RefreshToken current = stored("current", false, new Date(System.currentTimeMillis() + 60000));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("current"))).thenReturn(Optional.of(current));
+
+        // Exécution et vérifications
+        assertTrue(refreshTokenService.revoke("current"));
+        assertFalse(refreshTokenService.revoke("unknown"));
+        assertFalse(refreshTokenService.revoke(null));
+        verify(refreshTokenRepository).revokeFamily("family");
+    }
+}
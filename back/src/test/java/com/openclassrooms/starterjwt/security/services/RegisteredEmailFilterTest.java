@@ -0,0 +1,188 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RegisteredEmailFilter
+ */
+@ExtendWith(MockitoExtension.class)
+public class RegisteredEmailFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RegisteredEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RegisteredEmailFilter(userRepository, transactionManager, true, 1000, 2000);
+    }
+
+    private UserRepository.UserEmail user(long id, String email) {
+        return new UserRepository.UserEmail() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Doit répondre \"peut-être\" tant que le filtre n'est pas chargé")
+    void shouldAnswerMaybeBeforeWarmUp() {
+        assertTrue(filter.mightExist("unknown@test.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Doit écarter les emails inconnus une fois chargé depuis la table USERS")
+    void shouldRejectUnknownEmailsAfterWarmUp() {
+        // Préparation
+        when(userRepository.streamAllBy()).thenReturn(Stream.of(user(1, "yoga@studio.com"), user(2, "user@test.com")));
+
+        // Exécution
+        filter.init();
+
+        // Vérifications
+        assertTrue(filter.mightExist("yoga@studio.com"));
+        assertTrue(filter.mightExist("USER@test.com"));
+        assertFalse(filter.mightExist("unknown@test.com"));
+        assertEquals(1, filter.getSkippedCount());
+    }
+
+    @Test
+    @DisplayName("Doit connaître immédiatement un email inscrit sur cette instance")
+    void shouldAddRegisteredEmail() {
+        // Préparation
+        when(userRepository.streamAllBy()).thenReturn(Stream.empty());
+        filter.init();
+
+        // Exécution
+        filter.add("new@test.com");
+
+        // Vérification
+        assertTrue(filter.mightExist("new@test.com"));
+    }
+
+    @Test
+    @DisplayName("Doit relire les inscriptions reçues par les autres instances")
+    void shouldPollNewUsers() {
+        // Préparation
+        when(userRepository.streamAllBy()).thenReturn(Stream.of(user(500, "yoga@studio.com")));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong())).thenReturn(Arrays.asList(user(501, "remote@test.com")));
+        filter.init();
+
+        // Exécution
+        filter.poll();
+
+        // Vérifications
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L);
+        assertTrue(filter.mightExist("remote@test.com"));
+    }
+
+    @Test
+    @DisplayName("Doit relire les inscriptions récentes avant de conclure à l'absence d'un email")
+    void shouldCatchUpBeforeDenying() {
+        // Préparation - inscription reçue par une autre instance depuis la dernière relecture
+        when(userRepository.streamAllBy()).thenReturn(Stream.of(user(500, "yoga@studio.com")));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong())).thenReturn(Arrays.asList(user(501, "remote@test.com")));
+        filter.init();
+
+        // Exécution et vérifications
+        // L'absence déclenche la relecture, qui retrouve l'email : rien n'est écarté
+        assertTrue(filter.mightExist("remote@test.com"));
+        verify(userRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L);
+        assertEquals(0, filter.getSkippedCount());
+    }
+
+    @Test
+    @DisplayName("Doit relire un lot d'import validé après des identifiants plus récents")
+    void shouldPollRowsCommittedOutOfIdOrder() {
+        // Préparation - l'id 10 000 est déjà vu, un lot de 500 lignes commençant à 9 400 est validé ensuite
+        when(userRepository.streamAllBy()).thenReturn(Stream.of(user(10000, "yoga@studio.com")));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong())).thenReturn(Arrays.asList(user(9400, "imported@test.com")));
+        filter.init();
+
+        // Exécution
+        filter.poll();
+
+        // Vérifications - la relecture repart au-delà du plus gros lot
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(8000L);
+        assertTrue(filter.mightExist("imported@test.com"));
+    }
+
+    @Test
+    @DisplayName("Doit oublier les emails supprimés et retrouver les inscriptions manquées à la reconstruction")
+    void shouldResyncOnScheduledRebuild() {
+        // Préparation
+        when(userRepository.streamAllBy())
+                .thenReturn(Stream.of(user(1, "gone@test.com"), user(2, "user@test.com")))
+                .thenReturn(Stream.of(user(2, "user@test.com"), user(3, "missed@test.com")));
+        filter.init();
+        filter.markRemoved("gone@test.com");
+
+        // Exécution
+        filter.scheduledRebuild();
+
+        // Vérifications - reconstruction à chaque échéance, sans condition
+        verify(userRepository, times(2)).streamAllBy();
+        assertFalse(filter.mightExist("gone@test.com"));
+        assertTrue(filter.mightExist("user@test.com"));
+        assertTrue(filter.mightExist("missed@test.com"));
+    }
+
+    @Test
+    @DisplayName("Ne doit rien filtrer lorsqu'il est désactivé")
+    void shouldAlwaysAnswerMaybeWhenDisabled() {
+        // Préparation
+        RegisteredEmailFilter disabled = new RegisteredEmailFilter(userRepository, transactionManager, false, 1000, 2000);
+
+        // Exécution
+        disabled.init();
+        disabled.poll();
+
+        // Vérifications
+        assertTrue(disabled.mightExist("unknown@test.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Doit compter les requêtes évitées")
+    void shouldBindMetrics() {
+        // Préparation
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        when(userRepository.streamAllBy()).thenReturn(Stream.empty());
+        filter.init();
+
+        // Exécution
+        filter.mightExist("a@test.com");
+        filter.mightExist("b@test.com");
+
+        // Vérification
+        assertEquals(2.0, registry.get("auth.email.filter.skipped").functionCounter().count());
+    }
+}
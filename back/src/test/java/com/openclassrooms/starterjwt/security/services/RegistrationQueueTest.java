@@ -0,0 +1,175 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.UserBatchInserter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour RegistrationQueue
+ */
+@ExtendWith(MockitoExtension.class)
+public class RegistrationQueueTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmails;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RegistrationQueue queue;
+
+    private RegistrationQueue queue(boolean enabled, int queueCapacity, long statusTtlMs) {
+        queue = new RegistrationQueue(passwordEncoder, new UserBatchInserter(userRepository, registeredEmails, transactionManager),
+                enabled, 1, queueCapacity, 10, statusTtlMs, 1);
+        queue.start();
+        return queue;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private SignupRequest request(String email) {
+        SignupRequest request = new SignupRequest();
+        request.setEmail(email);
+        request.setFirstName("Prénom");
+        request.setLastName("Nom");
+        request.setPassword("password");
+        return request;
+    }
+
+    private RegistrationQueue.State awaitCompletion(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queue.getStatus(id).getState() == RegistrationQueue.State.PENDING && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return queue.getStatus(id).getState();
+    }
+
+    @Test
+    @DisplayName("Doit refuser toute inscription lorsque le mode asynchrone est désactivé")
+    void shouldRejectWhenDisabled() {
+        RegistrationQueue disabled = queue(false, 10, 60000);
+
+        assertFalse(disabled.isEnabled());
+        assertThrows(RejectedExecutionException.class, () -> disabled.submit(request("user@test.com")));
+    }
+
+    @Test
+    @DisplayName("Doit hacher et insérer l'inscription hors du thread appelant")
+    void shouldRegisterInBackground() throws Exception {
+        // Préparation
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        queue(true, 10, 60000);
+
+        // Exécution
+        String id = queue.submit(request("user@test.com"));
+
+        // Vérifications
+        assertEquals(RegistrationQueue.State.REGISTERED, awaitCompletion(id));
+        verify(userRepository).insertAll(argThat(users -> users.size() == 1
+                && users.get(0).getPassword().equals("encodedPassword")));
+        verify(registeredEmails).add("user@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit rejeter immédiatement lorsque la file est pleine")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Préparation - le worker reste bloqué sur le hachage de la première inscription
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "encodedPassword";
+        });
+        queue(true, 1, 60000);
+        queue.submit(request("first@test.com"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+
+        // Exécution
+        queue.submit(request("second@test.com"));
+
+        // Vérifications
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(request("third@test.com")));
+        assertEquals(1, queue.getRejectedCount());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Doit signaler les emails déjà pris sans faire échouer le reste du lot")
+    void shouldReportTakenEmails() {
+        // Préparation - le lot échoue, puis l'insertion isolée de taken@test.com aussi
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.size() > 1 || users.get(0).getEmail().equals("taken@test.com")) {
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", null, "uk_users_email_normalized"));
+            }
+            return null;
+        }).when(userRepository).insertAll(anyList());
+        queue(false, 10, 60000);
+
+        // Exécution
+        queue.process(Arrays.asList(
+                new RegistrationQueue.Pending("1", request("taken@test.com")),
+                new RegistrationQueue.Pending("2", request("new@test.com")),
+                new RegistrationQueue.Pending("3", request("NEW@test.com"))));
+
+        // Vérifications
+        assertEquals(RegistrationQueue.State.FAILED, queue.getStatus("1").getState());
+        assertEquals(RegistrationQueue.EMAIL_TAKEN, queue.getStatus("1").getMessage());
+        assertEquals(RegistrationQueue.State.REGISTERED, queue.getStatus("2").getState());
+        assertEquals(RegistrationQueue.State.FAILED, queue.getStatus("3").getState());
+        verify(registeredEmails).add("new@test.com");
+        verify(passwordEncoder, times(2)).encode("password");
+    }
+
+    @Test
+    @DisplayName("Doit oublier les inscriptions traitées après le délai de conservation")
+    void shouldPurgeCompletedStatuses() throws Exception {
+        // Préparation
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        queue(false, 10, 0);
+        queue.process(Arrays.asList(new RegistrationQueue.Pending("1", request("user@test.com"))));
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        // Exécution
+        queue.purgeStatuses();
+
+        // Vérification
+        assertNull(queue.getStatus("1"));
+    }
+}
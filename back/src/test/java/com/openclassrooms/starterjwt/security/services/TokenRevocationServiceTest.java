@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour TokenRevocationService
+ */
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    private Date inOneHour;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1000);
+        inOneHour = new Date(System.currentTimeMillis() + 3600000);
+    }
+
+    private RevokedToken row(long id, String tokenId, Date expiresAt) {
+        return RevokedToken.builder().id(id).tokenId(tokenId).expiresAt(expiresAt).build();
+    }
+
+    @Test
+    @DisplayName("Doit persister la révocation et la prendre en compte immédiatement")
+    void shouldRevokeToken() {
+        // Exécution
+        tokenRevocationService.revoke("jti-1", inOneHour);
+
+        // Vérifications
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+    }
+
+    @Test
+    @DisplayName("Ne doit pas considérer comme révoqué un token sans jti")
+    void shouldIgnoreTokenWithoutId() {
+        assertFalse(tokenRevocationService.isRevoked(null));
+    }
+
+    @Test
+    @DisplayName("Doit accepter une révocation déjà enregistrée par une autre instance")
+    void shouldTolerateDuplicateRevocation() {
+        // Préparation
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // Exécution
+        tokenRevocationService.revoke("jti-1", inOneHour);
+
+        // Vérification
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("Ne doit pas réécrire en base un token déjà révoqué localement")
+    void shouldNotSaveTwice() {
+        tokenRevocationService.revoke("jti-1", inOneHour);
+        tokenRevocationService.revoke("jti-1", inOneHour);
+
+        verify(revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    @DisplayName("Doit relire uniquement les nouvelles lignes, avec un recouvrement borné")
+    void shouldPollIncrementally() {
+        // Préparation
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(0L))
+                .thenReturn(Arrays.asList(row(1, "jti-1", inOneHour), row(250, "jti-250", inOneHour)));
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(250L - TokenRevocationService.POLL_OVERLAP))
+                .thenReturn(Collections.singletonList(row(251, "jti-251", inOneHour)));
+
+        // Exécution
+        tokenRevocationService.poll();
+        tokenRevocationService.poll();
+
+        // Vérifications
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertTrue(tokenRevocationService.isRevoked("jti-250"));
+        assertTrue(tokenRevocationService.isRevoked("jti-251"));
+        verify(revokedTokenRepository).findByIdGreaterThanOrderByIdAsc(150L);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer les révocations de tokens déjà expirés")
+    void shouldSkipExpiredRowsWhenPolling() {
+        // Préparation
+        Date past = new Date(System.currentTimeMillis() - 1000);
+        when(revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(anyLong()))
+                .thenReturn(Collections.singletonList(row(1, "jti-1", past)));
+
+        // Exécution
+        tokenRevocationService.poll();
+
+        // Vérifications
+        assertFalse(tokenRevocationService.isRevoked("jti-1"));
+        assertEquals(0, tokenRevocationService.size());
+    }
+
+    @Test
+    @DisplayName("Doit oublier les tokens expirés et les supprimer de la base")
+    void shouldPurgeExpired() {
+        // Préparation
+        tokenRevocationService.revoke("expired", new Date(System.currentTimeMillis() - 1000));
+        tokenRevocationService.revoke("active", inOneHour);
+
+        // Exécution
+        tokenRevocationService.purgeExpired();
+
+        // Vérifications
+        assertFalse(tokenRevocationService.isRevoked("expired"));
+        assertTrue(tokenRevocationService.isRevoked("active"));
+        assertEquals(1, tokenRevocationService.size());
+        verify(revokedTokenRepository).deleteByExpiresAtBefore(any(Date.class));
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import com.openclassrooms.starterjwt.models.UserChange;
+import com.openclassrooms.starterjwt.repository.UserChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour UserChangeChannel
+ */
+@ExtendWith(MockitoExtension.class)
+public class UserChangeChannelTest {
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    private UserChangeChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new UserChangeChannel(userChangeRepository, userDetailsCache, true, 3600000);
+    }
+
+    private UserChange row(long id, String email) {
+        return UserChange.builder().id(id).email(email).changedAt(new Date()).build();
+    }
+
+    @Test
+    @DisplayName("Doit invalider localement et publier la modification")
+    void shouldInvalidateAndPublish() {
+        // Exécution
+        channel.userChanged("user@test.com");
+
+        // Vérifications
+        verify(userDetailsCache).invalidate("user@test.com");
+        verify(userChangeRepository).save(any(UserChange.class));
+    }
+
+    @Test
+    @DisplayName("Ne doit rien publier lorsque le canal est désactivé")
+    void shouldOnlyInvalidateLocallyWhenDisabled() {
+        // Préparation
+        UserChangeChannel localOnly = new UserChangeChannel(userChangeRepository, userDetailsCache, false, 3600000);
+
+        // Exécution
+        localOnly.userChanged("user@test.com");
+        localOnly.poll();
+        localOnly.purgeExpired();
+
+        // Vérifications
+        verify(userDetailsCache).invalidate("user@test.com");
+        verifyNoInteractions(userChangeRepository);
+    }
+
+    @Test
+    @DisplayName("Doit ignorer un utilisateur sans email (déjà supprimé)")
+    void shouldIgnoreNullEmail() {
+        channel.userChanged(null);
+
+        verifyNoInteractions(userDetailsCache, userChangeRepository);
+    }
+
+    @Test
+    @DisplayName("Doit démarrer après la dernière modification connue sans rejouer l'historique")
+    void shouldStartAfterLatestChange() {
+        // Préparation
+        when(userChangeRepository.findTopByOrderByIdDesc()).thenReturn(Optional.of(row(500, "old@test.com")));
+        when(userChangeRepository.findByIdGreaterThanOrderByIdAsc(anyLong())).thenReturn(Arrays.asList(row(501, "new@test.com")));
+
+        // Exécution
+        channel.init();
+        channel.poll();
+
+        // Vérifications
+        verify(userChangeRepository).findByIdGreaterThanOrderByIdAsc(500 - UserChangeChannel.POLL_OVERLAP);
+        verify(userDetailsCache).invalidate("new@test.com");
+        verify(userDetailsCache, never()).invalidate("old@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit invalider une seule fois les modifications relues dans la zone de recouvrement")
+    void shouldApplyEachChangeOnce() {
+        // Préparation - la seconde lecture renvoie de nouveau la ligne 1, plus une ligne validée en retard
+        when(userChangeRepository.findByIdGreaterThanOrderByIdAsc(0L))
+                .thenReturn(Arrays.asList(row(1, "a@test.com"), row(3, "c@test.com")))
+                .thenReturn(Arrays.asList(row(1, "a@test.com"), row(2, "b@test.com"), row(3, "c@test.com")));
+
+        // Exécution
+        channel.poll();
+        channel.poll();
+
+        // Vérifications
+        verify(userDetailsCache, times(1)).invalidate("a@test.com");
+        verify(userDetailsCache, times(1)).invalidate("b@test.com");
+        verify(userDetailsCache, times(1)).invalidate("c@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit purger les modifications plus anciennes que la rétention")
+    void shouldPurgeOldChanges() {
+        // Préparation
+        when(userChangeRepository.deleteByChangedAtBefore(any(Date.class))).thenReturn(3L);
+        long before = System.currentTimeMillis() - 3600000;
+
+        // Exécution
+        channel.purgeExpired();
+
+        // Vérification
+        verify(userChangeRepository).deleteByChangedAtBefore(argThat(date -> date.getTime() >= before));
+        assertEquals(0, mockingDetails(userDetailsCache).getInvocations().size());
+    }
+}
@@ -0,0 +1,157 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour UserDetailsCache
+ */
+public class UserDetailsCacheTest {
+
+    private UserDetailsCache cache;
+
+    private AtomicInteger loads;
+
+    private Function<String, UserDetailsImpl> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserDetailsCache(100, 60000);
+        loads = new AtomicInteger();
+        loader = email -> {
+            loads.incrementAndGet();
+            return UserDetailsImpl.builder().id(1L).username(email).admin(false).build();
+        };
+    }
+
+    @Test
+    @DisplayName("Doit charger une seule fois puis servir depuis le cache, sans tenir compte de la casse")
+    void shouldLoadOnceThenHit() {
+        // Exécution
+        UserDetailsImpl first = cache.get("user@test.com", loader);
+        UserDetailsImpl second = cache.get("USER@Test.com", loader);
+
+        // Vérifications
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    @DisplayName("Doit recharger après une invalidation")
+    void shouldReloadAfterInvalidation() {
+        // Préparation
+        cache.get("user@test.com", loader);
+
+        // Exécution
+        cache.invalidate("User@test.com");
+        cache.get("user@test.com", loader);
+
+        // Vérification
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Doit recharger une entrée expirée")
+    void shouldReloadExpiredEntry() throws Exception {
+        // Préparation - TTL d'une milliseconde
+        UserDetailsCache shortLived = new UserDetailsCache(100, 1);
+        shortLived.get("user@test.com", loader);
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        // Exécution
+        shortLived.get("user@test.com", loader);
+
+        // Vérifications
+        assertEquals(2, loads.get());
+        assertEquals(1, shortLived.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Ne doit pas conserver un chargement pendant lequel une invalidation est survenue")
+    void shouldDiscardLoadRacingWithInvalidation() {
+        // Exécution - l'utilisateur est modifié pendant sa lecture en base
+        cache.get("user@test.com", email -> {
+            cache.invalidate(email);
+            return loader.apply(email);
+        });
+
+        // Vérifications
+        assertEquals(0, cache.size());
+        cache.get("user@test.com", loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Doit propager l'exception du chargement sans rien mettre en cache")
+    void shouldNotCacheFailedLoad() {
+        // Exécution et vérifications
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("unknown@test.com", email -> {
+            throw new UsernameNotFoundException(email);
+        }));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Doit borner le nombre d'entrées")
+    void shouldBoundSize() {
+        // Préparation
+        UserDetailsCache bounded = new UserDetailsCache(10, 60000);
+
+        // Exécution
+        for (int i = 0; i < 100; i++) {
+            bounded.get("user" + i + "@test.com", loader);
+        }
+
+        // Vérification
+        assertTrue(bounded.size() <= 10);
+    }
+
+    @Test
+    @DisplayName("Ne doit rien conserver lorsque le cache est désactivé")
+    void shouldBypassWhenDisabled() {
+        // Préparation
+        UserDetailsCache disabled = new UserDetailsCache(0, 60000);
+
+        // Exécution
+        disabled.get("user@test.com", loader);
+        disabled.get("user@test.com", loader);
+
+        // Vérifications
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    @DisplayName("Doit exposer le taux de succès et la latence de chargement")
+    void shouldBindMetrics() {
+        // Préparation
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Exécution
+        cache.get("user@test.com", loader);
+        cache.get("user@test.com", loader);
+        cache.get("user@test.com", loader);
+
+        // Vérifications
+        assertEquals(2.0, registry.get("user.cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("user.cache.misses").functionCounter().count());
+        assertEquals(2.0 / 3, registry.get("user.cache.hit.ratio").gauge().value(), 1e-9);
+        assertEquals(1.0, registry.get("user.cache.size").gauge().value());
+        assertEquals(1.0, registry.get("user.cache.load").functionTimer().count());
+        assertTrue(registry.get("user.cache.load").functionTimer().totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+}
@@ -3,8 +3,14 @@ package com.openclassrooms.starterjwt.security.services;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -92,16 +98,49 @@ public class UserDetailsImplTest {
         assertFalse(userDetails.equals(differentUserDetails));
     }
 
-    // Test de la méthode getAuthorities()
+    // Test de la méthode getAuthorities() pour un utilisateur simple
     @Test
     void testGetAuthorities() {
         // Arrange - Déjà fait dans setUp()
         // Act
         Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
         // Assert
-        // Vérification que la collection des autorités est vide
+        // Vérification que seul le rôle utilisateur est attribué
         assertNotNull(authorities);
-        assertTrue(authorities.isEmpty());
+        assertEquals(Collections.singleton("ROLE_USER"), roles(authorities));
+    }
+
+    // Test de la méthode getAuthorities() pour un administrateur
+    @Test
+    void testGetAuthorities_Admin() {
+        // Arrange - sameUserDetails est administrateur
+        // Act
+        Collection<? extends GrantedAuthority> authorities = sameUserDetails.getAuthorities();
+        // Assert
+        assertEquals(new HashSet<>(Arrays.asList("ROLE_USER", "ROLE_ADMIN")), roles(authorities));
+    }
+
+    // Test de la méthode getAuthorities() sans indicateur admin
+    @Test
+    void testGetAuthorities_NullAdmin() {
+        // Arrange
+        UserDetailsImpl noFlag = userDetails.toBuilder().admin(null).build();
+        // Act & Assert
+        // Un indicateur absent ne donne pas les droits administrateur
+        assertEquals(Collections.singleton("ROLE_USER"), roles(noFlag.getAuthorities()));
+    }
+
+    // Test du partage et de l'immuabilité des autorités
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetAuthorities_SharedAndImmutable() {
+        // Act & Assert
+        // Même instance pour tous les principaux de même rôle, à chaque appel
+        assertSame(userDetails.getAuthorities(), userDetails.getAuthorities());
+        assertSame(userDetails.getAuthorities(), differentUserDetails.getAuthorities());
+        Collection<GrantedAuthority> authorities = (Collection<GrantedAuthority>) sameUserDetails.getAuthorities();
+        assertThrows(UnsupportedOperationException.class,
+                () -> authorities.add(new SimpleGrantedAuthority("ROLE_OTHER")));
     }
 
     // Test de la méthode isAccountNonExpired()
@@ -139,4 +178,8 @@ public class UserDetailsImplTest {
         // Vérification que le compte est toujours activé (renvoie toujours true)
         assertTrue(userDetails.isEnabled());
     }
+
+    private static Set<String> roles(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    }
 }
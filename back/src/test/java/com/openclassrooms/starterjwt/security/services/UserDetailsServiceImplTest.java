@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,6 +24,15 @@ public class UserDetailsServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(100, 60000);
+
+    @Mock
+    private UserChangeChannel userChangeChannel;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmails;
+
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
@@ -30,6 +40,9 @@ public class UserDetailsServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        // Par défaut, le filtre des emails laisse passer toutes les recherches vers la base
+        lenient().when(registeredEmails.mightExist(anyString())).thenReturn(true);
+
         // Configuration d'un objet user pour les tests
         user = new User();
         user.setId(1L);
@@ -67,6 +80,7 @@ public class UserDetailsServiceImplTest {
         assertEquals(user.getFirstName(), userDetails.getFirstName());
         assertEquals(user.getLastName(), userDetails.getLastName());
         assertEquals(user.getPassword(), userDetails.getPassword());
+        assertEquals(user.isAdmin(), userDetails.getAdmin());
         
         // Vérification que la méthode findByEmail du repository a été appelée exactement une fois
         verify(userRepository, times(1)).findByEmail("user@test.com");
@@ -94,4 +108,99 @@ public class UserDetailsServiceImplTest {
         // Vérification que la méthode findByEmail du repository a été appelée exactement une fois
         verify(userRepository, times(1)).findByEmail("unknown@test.com");
     }
+
+    // Test du cache : le second chargement du même utilisateur ne relit pas la base
+    @Test
+    void testLoadUserByUsername_ShouldServeSecondCallFromCache() {
+        // Arrange
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(user));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername("user@test.com");
+        UserDetails second = userDetailsService.loadUserByUsername("USER@test.com");
+
+        // Assert
+        // Une seule requête, et la même instance (immuable) partagée entre les deux appels
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail("user@test.com");
+        assertEquals(1, userDetailsCache.getHits());
+    }
+
+    // Test du cache : un utilisateur inconnu n'est pas mis en cache
+    @Test
+    void testLoadUserByUsername_ShouldNotCacheUnknownUser() {
+        // Arrange
+        when(userRepository.findByEmail("unknown@test.com")).thenReturn(Optional.empty());
+
+        // Act
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@test.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@test.com"));
+
+        // Assert
+        verify(userRepository, times(2)).findByEmail("unknown@test.com");
+        assertEquals(0, userDetailsCache.size());
+    }
+
+    // Test du filtre des emails : un email certainement inconnu ne déclenche aucune requête
+    @Test
+    void testLoadUserByUsername_ShouldSkipDatabase_WhenEmailIsDefinitelyUnknown() {
+        // Arrange
+        when(registeredEmails.mightExist("ghost@test.com")).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ghost@test.com"));
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    // Test de la réécriture du hash après un login réussi lorsque le coût BCrypt a changé
+    @Test
+    void testUpdatePassword_ShouldPersistNewHash() {
+        // Arrange
+        UserDetailsImpl current = UserDetailsImpl.builder()
+                .id(1L)
+                .username("user@test.com")
+                .firstName("Jean")
+                .lastName("Dupont")
+                .password("oldHash")
+                .admin(false)
+                .build();
+        when(userRepository.updatePasswordByEmail("user@test.com", "newHash")).thenReturn(1);
+
+        // Act
+        UserDetails result = userDetailsService.updatePassword(current, "newHash");
+
+        // Assert
+        // Le hash est réécrit en base et le principal retourné porte le nouveau hash
+        verify(userRepository, times(1)).updatePasswordByEmail("user@test.com", "newHash");
+        // Le principal en cache, qui porte l'ancien hash, est invalidé
+        verify(userChangeChannel, times(1)).userChanged("user@test.com");
+        assertEquals("newHash", result.getPassword());
+        assertEquals(current.getId(), ((UserDetailsImpl) result).getId());
+        assertEquals("Jean", ((UserDetailsImpl) result).getFirstName());
+    }
+
+    // Test du chargement par identifiant utilisé lors du rafraîchissement d'un token
+    @Test
+    void testLoadUserById_ShouldReturnUserDetails() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        UserDetailsImpl result = userDetailsService.loadUserById(1L);
+
+        // Assert
+        assertEquals("user@test.com", result.getUsername());
+        assertEquals("Jean", result.getFirstName());
+        assertFalse(result.getAdmin());
+    }
+
+    // Test du chargement par identifiant lorsque l'utilisateur a été supprimé
+    @Test
+    void testLoadUserById_ShouldThrow_WhenUserDoesNotExist() {
+        // Arrange
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserById(2L));
+    }
 }
@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour SessionPaging
+ */
+public class SessionPagingTest {
+
+    private final SessionPaging paging = new SessionPaging(20, 100, true);
+
+    @Test
+    @DisplayName("Doit retrouver la position (date, id) encodée dans le curseur")
+    void shouldRoundTripCursor() {
+        // Préparation
+        Session session = new Session().setId(42L).setDate(new Date(1700000000123L));
+
+        // Exécution
+        SessionPaging.Cursor cursor = paging.decode(paging.encode(session));
+
+        // Vérifications
+        assertEquals(42L, cursor.getId());
+        assertEquals(1700000000123L, cursor.getDate().getTime());
+    }
+
+    @Test
+    @DisplayName("Doit refuser un curseur illisible")
+    void shouldRejectMalformedCursor() {
+        assertThrows(BadRequestException.class, () -> paging.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> paging.decode("bm90LWEtY3Vyc29y"));
+        assertNull(paging.decode(null));
+    }
+
+    @Test
+    @DisplayName("Doit plafonner la taille de page et refuser une taille nulle")
+    void shouldCapPageSize() {
+        assertEquals(20, paging.pageSize(null));
+        assertEquals(50, paging.pageSize(50));
+        assertEquals(100, paging.pageSize(10000));
+        assertThrows(BadRequestException.class, () -> paging.pageSize(0));
+    }
+
+    @Test
+    @DisplayName("Ne doit servir la liste complète que sans paramètre et si le drapeau est actif")
+    void shouldOnlyServeUnpagedListWhenFlagged() {
+        assertTrue(paging.isUnpaged(null, null));
+        assertFalse(paging.isUnpaged(null, 10));
+        assertFalse(new SessionPaging(20, 100, false).isUnpaged(null, null));
+    }
+}
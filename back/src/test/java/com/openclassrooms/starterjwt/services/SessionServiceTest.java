@@ -4,7 +4,9 @@ import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSpecifications;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,15 +14,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -88,29 +96,136 @@ public class SessionServiceTest {
         verify(sessionRepository, times(1)).findAll();
     }
 
+    // Tous les filtres en une seule requête, triée par date puis id
+    @Test
+    void testSearch_SingleQuery() {
+        // Arrange
+        SessionFilter filter = new SessionFilter();
+        filter.setTeacher_id(1L);
+        filter.setFrom(OffsetDateTime.parse("2030-01-01T00:00:00Z"));
+        filter.setName("Hatha");
+        filter.setFreeSeats(true);
+        when(sessionRepository.findAll(any(Specification.class), eq(SessionSpecifications.BY_DATE))).thenReturn(Arrays.asList(session));
+        // Act
+        List<Session> result = sessionService.search(filter);
+        // Assert
+        assertEquals(1, result.size());
+        verify(sessionRepository, times(1)).findAll(any(Specification.class), eq(SessionSpecifications.BY_DATE));
+        verify(sessionRepository, never()).findAll();
+    }
+
+    // Fenêtre inversée : requête refusée sans interroger la base
+    @Test
+    void testSearch_InvertedWindow() {
+        // Arrange
+        SessionFilter filter = new SessionFilter();
+        filter.setFrom(OffsetDateTime.parse("2030-02-01T00:00:00Z"));
+        filter.setTo(OffsetDateTime.parse("2030-01-01T00:00:00Z"));
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> sessionService.search(filter));
+        verifyNoInteractions(sessionRepository);
+    }
+
+    // À venir : borne basse à l'instant de l'appel
+    @Test
+    void testFindUpcoming() {
+        // Arrange
+        long before = System.currentTimeMillis();
+        when(sessionRepository.findByDateGreaterThanEqualOrderByDateAscIdAsc(any(Date.class))).thenReturn(Arrays.asList(session));
+        // Act
+        List<Session> result = sessionService.findUpcoming();
+        // Assert
+        assertEquals(1, result.size());
+        verify(sessionRepository).findByDateGreaterThanEqualOrderByDateAscIdAsc(argThat(from -> from.getTime() >= before));
+    }
+
+    // Check si l'appel est fait avec bon arguments
+    @Test
+    void testFindAllSummaries() {
+        // Arrange
+        SessionRepository.SessionSummary summary = mock(SessionRepository.SessionSummary.class);
+        when(sessionRepository.findAllSummaries()).thenReturn(Arrays.asList(summary));
+        // Act
+        List<SessionRepository.SessionSummary> result = sessionService.findAllSummaries();
+        // Assert
+        assertEquals(Arrays.asList(summary), result);
+        verify(sessionRepository, never()).findAll();
+    }
+
+    // Première page : pas de curseur, parcours depuis le début
+    @Test
+    void testFindPage_FirstPage() {
+        // Arrange
+        when(sessionRepository.findAllByOrderByDateAscIdAsc(PageRequest.of(0, 21))).thenReturn(Arrays.asList(session));
+        // Act
+        List<Session> result = sessionService.findPage(null, 21);
+        // Assert
+        assertEquals(1, result.size());
+        verify(sessionRepository, never()).findPageAfter(any(), any(), any());
+    }
+
+    // Pages suivantes : reprise après la position (date, id) du curseur
+    @Test
+    void testFindPage_AfterCursor() {
+        // Arrange
+        Date date = new Date();
+        when(sessionRepository.findPageAfter(date, 3L, PageRequest.of(0, 21))).thenReturn(Arrays.asList(session));
+        // Act
+        List<Session> result = sessionService.findPage(new SessionPaging.Cursor(date, 3L), 21);
+        // Assert
+        assertEquals(1, result.size());
+        verify(sessionRepository, never()).findAllByOrderByDateAscIdAsc(any());
+    }
+
+    // Participants de toute la liste en une requête, regroupés par séance
+    @Test
+    void testFindParticipantIds_GroupsBySession() {
+        // Arrange
+        Session other = new Session();
+        other.setId(4L);
+        when(sessionRepository.findParticipantIds(Arrays.asList(3L, 4L))).thenReturn(Arrays.asList(
+                new Object[] { 3L, 1L }, new Object[] { 3L, 2L }));
+        // Act
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(Arrays.asList(session, other));
+        // Assert
+        assertEquals(Arrays.asList(1L, 2L), result.get(3L));
+        assertFalse(result.containsKey(4L));
+        verify(sessionRepository, times(1)).findParticipantIds(any());
+    }
+
+    // Liste vide : pas de requête (in () n'est pas du SQL valide)
+    @Test
+    void testFindParticipantIds_EmptyList() {
+        // Act
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(new ArrayList<>());
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(sessionRepository, never()).findParticipantIds(any());
+    }
+
     // Check si l'appel est fait avec bon arguments
     @Test
     void testGetById_Found() {
         // Arrange
-        when(sessionRepository.findById(3L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(3L)).thenReturn(Optional.of(session));
         // Act
         Session result = sessionService.getById(3L);
         // Assert
         assertNotNull(result);
         assertEquals(session.getId(), result.getId());
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
     }
 
     // Check si l'appel est fait avec bon arguments
     @Test
     void testGetById_NotFound() {
         // Arrange
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.findWithUsersById(anyLong())).thenReturn(Optional.empty());
         // Act
         Session result = sessionService.getById(999L);
         // Assert
         assertNull(result);
-        verify(sessionRepository, times(1)).findById(999L);
+        verify(sessionRepository, times(1)).findWithUsersById(999L);
     }
 
     // Check appel + affectation ID
@@ -139,13 +254,13 @@ public class SessionServiceTest {
     void testParticipate_Success() {
         // Arrange
         // Mock d'une réponse avec une session valide
-        when(sessionRepository.findById(3L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(3L)).thenReturn(Optional.of(session));
         // Mock d'une réponse avec un utilisateur valide
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         // Act
         sessionService.participate(3L, 1L);
         // Assert
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
         verify(userRepository, times(1)).findById(1L);
         verify(sessionRepository, times(1)).save(session);
         assertEquals(1, session.getUsers().size());
@@ -157,14 +272,14 @@ public class SessionServiceTest {
     void testParticipate_SessionNotFound() {
         // Arrange
         // Mock d'une réponse où aucune session n'est trouvée
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.findWithUsersById(anyLong())).thenReturn(Optional.empty());
         // Mock d'une réponse où l'utilisateur est considéré comme valide
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         // Act & Assert
         assertThrows(NotFoundException.class, () -> {
             sessionService.participate(999L, 1L);
         });
-        verify(sessionRepository, times(1)).findById(999L);
+        verify(sessionRepository, times(1)).findWithUsersById(999L);
         verify(userRepository, times(1)).findById(1L);
         verify(sessionRepository, never()).save(any(Session.class));
     }
@@ -174,7 +289,7 @@ public class SessionServiceTest {
     void testParticipate_UserNotFound() {
         // Arrange
         // Mock réponse object de session considéré comme valide
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(anyLong())).thenReturn(Optional.of(session));
         // Mock d'une réponse ou l'on ne trouve pas d'utilisateur on attend une erreur NotFoundException
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
         // Act & Assert
@@ -183,7 +298,7 @@ public class SessionServiceTest {
             sessionService.participate(3L, 999L);
         });
         // check calls 
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
         verify(userRepository, times(1)).findById(999L);
         verify(sessionRepository, never()).save(any(Session.class));
     }
@@ -195,14 +310,14 @@ public class SessionServiceTest {
         // On ajoute l'utilisateur à la session pour simuler qu'il participe déjà
         session.getUsers().add(user);
         // Mock d'une réponse avec une session valide contenant déjà l'utilisateur
-        when(sessionRepository.findById(3L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(3L)).thenReturn(Optional.of(session));
         // Mock d'une réponse avec un utilisateur valide
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         // Act & Assert
         assertThrows(BadRequestException.class, () -> {
             sessionService.participate(3L, 1L);
         });
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
         verify(userRepository, times(1)).findById(1L);
         verify(sessionRepository, never()).save(any(Session.class));
     }
@@ -214,11 +329,11 @@ public class SessionServiceTest {
         // On ajoute l'utilisateur à la session pour simuler sa participation initiale
         session.getUsers().add(user);
         // Mock d'une réponse avec une session valide contenant l'utilisateur
-        when(sessionRepository.findById(3L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(3L)).thenReturn(Optional.of(session));
         // Act
         sessionService.noLongerParticipate(3L, 1L);
         // Assert
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
         verify(sessionRepository, times(1)).save(session);
         assertEquals(0, session.getUsers().size());
     }
@@ -228,12 +343,12 @@ public class SessionServiceTest {
     void testNoLongerParticipate_SessionNotFound() {
         // Arrange
         // Mock d'une réponse où aucune session n'est trouvée
-        when(sessionRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(sessionRepository.findWithUsersById(anyLong())).thenReturn(Optional.empty());
         // Act & Assert
         assertThrows(NotFoundException.class, () -> {
             sessionService.noLongerParticipate(999L, 1L);
         });
-        verify(sessionRepository, times(1)).findById(999L);
+        verify(sessionRepository, times(1)).findWithUsersById(999L);
         verify(sessionRepository, never()).save(any(Session.class));
     }
 
@@ -243,12 +358,12 @@ public class SessionServiceTest {
         // Arrange
         // Aucun utilisateur ne participe (on n'en a pas spécifié)
         // Mock d'une réponse avec une session valide sans l'utilisateur dedans
-        when(sessionRepository.findById(3L)).thenReturn(Optional.of(session));
+        when(sessionRepository.findWithUsersById(3L)).thenReturn(Optional.of(session));
         // Act & Assert -- on essaye d'enlever le participant
         assertThrows(BadRequestException.class, () -> {
             sessionService.noLongerParticipate(3L, 1L);
         });
-        verify(sessionRepository, times(1)).findById(3L);
+        verify(sessionRepository, times(1)).findWithUsersById(3L);
         verify(sessionRepository, never()).save(any(Session.class));
     }
 }
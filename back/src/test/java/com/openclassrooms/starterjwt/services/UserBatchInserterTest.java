@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour UserBatchInserter
+ */
+@ExtendWith(MockitoExtension.class)
+public class UserBatchInserterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmails;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserBatchInserter batchInserter;
+
+    @BeforeEach
+    void setUp() {
+        batchInserter = new UserBatchInserter(userRepository, registeredEmails, transactionManager);
+    }
+
+    private User user(String email) {
+        return new User(email, "Nom", "Prénom", "hashed", false);
+    }
+
+    @Test
+    @DisplayName("Doit insérer le lot en un seul appel et enregistrer chaque email")
+    void shouldInsertBatchAtOnce() {
+        // Préparation
+        List<User> users = Arrays.asList(user("pierre@test.com"), user("paul@test.com"));
+
+        // Exécution
+        boolean[] inserted = batchInserter.insert(users);
+
+        // Vérifications
+        assertArrayEquals(new boolean[] { true, true }, inserted);
+        verify(userRepository, times(1)).insertAll(users);
+        verify(registeredEmails).add("pierre@test.com");
+        verify(registeredEmails).add("paul@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit rejouer le lot ligne par ligne et n'écarter que l'email déjà pris")
+    void shouldFallBackToSingleInsertsOnConflict() {
+        // Préparation - le lot échoue, puis l'insertion isolée de pierre@test.com aussi
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.size() == 2 || users.get(0).getEmail().equals("pierre@test.com")) {
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", null, "uk_users_email_normalized"));
+            }
+            return null;
+        }).when(userRepository).insertAll(anyList());
+
+        // Exécution
+        boolean[] inserted = batchInserter.insert(Arrays.asList(user("pierre@test.com"), user("paul@test.com")));
+
+        // Vérifications
+        assertArrayEquals(new boolean[] { false, true }, inserted);
+        verify(userRepository, times(3)).insertAll(anyList());
+        verify(registeredEmails).add("paul@test.com");
+        verify(registeredEmails, never()).add("pierre@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit propager une violation d'une autre contrainte que l'unicité de l'email")
+    void shouldRethrowOtherConstraintViolations() {
+        // Préparation - une colonne NOT NULL rejette le lot
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("NULL not allowed for column",
+                new ConstraintViolationException("NULL not allowed for column", null, null));
+        doThrow(notNull).when(userRepository).insertAll(anyList());
+
+        // Exécution et vérifications - pas de rejeu ligne par ligne
+        assertSame(notNull, assertThrows(DataIntegrityViolationException.class,
+                () -> batchInserter.insert(Collections.singletonList(user("pierre@test.com")))));
+        verify(userRepository, times(1)).insertAll(anyList());
+        verifyNoInteractions(registeredEmails);
+    }
+
+    @Test
+    @DisplayName("Ne doit rien insérer pour un lot vide")
+    void shouldSkipEmptyBatch() {
+        // Exécution
+        boolean[] inserted = batchInserter.insert(Collections.emptyList());
+
+        // Vérifications
+        assertEquals(0, inserted.length);
+        verifyNoInteractions(userRepository, registeredEmails);
+    }
+}
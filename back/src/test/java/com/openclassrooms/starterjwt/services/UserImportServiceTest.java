@@ -0,0 +1,220 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.response.ImportResponse;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour UserImportService
+ */
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmails;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new UserImportService(userRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new UserBatchInserter(userRepository, registeredEmails, transactionManager), 2, 2, 100);
+        lenient().when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    private InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<User> insertedUsers(int batches) {
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(batches)).insertAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Doit importer un CSV par lots avec les mots de passe hachés")
+    void shouldImportCsvInBatches() throws Exception {
+        // Exécution - 3 lignes pour des lots de 2, colonnes dans le désordre et champ entre guillemets
+        ImportResponse response = importService.importUsers(body(
+                "lastName,firstName,email,password",
+                "Dupont,Pierre,pierre@test.com,password1",
+                "\"Le Gall, Jr\",Anne,anne@test.com,password2",
+                "Martin,Paul,paul@test.com,password3"), UserImportService.Format.CSV);
+
+        // Vérifications
+        assertEquals(3, response.getImported());
+        assertEquals(0, response.getFailed());
+        List<User> users = insertedUsers(2);
+        assertEquals("Le Gall, Jr", users.get(1).getLastName());
+        assertEquals("hashed-password2", users.get(1).getPassword());
+        assertFalse(users.get(1).getAdmin());
+        verify(registeredEmails).add("anne@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit importer un flux NDJSON")
+    void shouldImportNdjson() throws Exception {
+        // Exécution
+        ImportResponse response = importService.importUsers(body(
+                "{\"email\":\"pierre@test.com\",\"firstName\":\"Pierre\",\"lastName\":\"Dupont\",\"password\":\"password1\"}",
+                "",
+                "{\"email\":\"paul@test.com\",\"firstName\":\"Paul\",\"lastName\":\"Martin\",\"password\":\"password2\"}"),
+                UserImportService.Format.NDJSON);
+
+        // Vérifications
+        assertEquals(2, response.getImported());
+        assertEquals("paul@test.com", insertedUsers(1).get(1).getEmail());
+    }
+
+    @Test
+    @DisplayName("Doit rapporter les lignes invalides sans interrompre l'import")
+    void shouldReportInvalidRows() throws Exception {
+        // Exécution
+        ImportResponse response = importService.importUsers(body(
+                "{\"email\":\"not-an-email\",\"firstName\":\"Pierre\",\"lastName\":\"Dupont\",\"password\":\"password1\"}",
+                "{broken",
+                "{\"email\":\"paul@test.com\",\"firstName\":\"Paul\",\"lastName\":\"Martin\",\"password\":\"password2\"}"),
+                UserImportService.Format.NDJSON);
+
+        // Vérifications
+        assertEquals(1, response.getImported());
+        assertEquals(2, response.getFailed());
+        assertEquals(1, response.getErrors().get(0).getLine());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("email: "));
+        assertEquals(2, response.getErrors().get(1).getLine());
+        assertEquals(UserImportService.MALFORMED_ROW, response.getErrors().get(1).getMessage());
+        verify(passwordEncoder, never()).encode("password1");
+    }
+
+    @Test
+    @DisplayName("Doit refuser les emails déjà inscrits ou en double dans le fichier")
+    void shouldRejectTakenAndDuplicatedEmails() throws Exception {
+        // Préparation
+        when(userRepository.findExistingNormalizedEmails(anyCollection())).thenReturn(Collections.singletonList("taken@test.com"));
+
+        // Exécution
+        ImportResponse response = importService.importUsers(body(
+                "email,firstName,lastName,password",
+                "new@test.com,Paul,Martin,password1",
+                "NEW@test.com,Paul,Martin,password2",
+                "taken@test.com,Pierre,Dupont,password3"), UserImportService.Format.CSV);
+
+        // Vérifications - doublon dans le premier lot, email déjà inscrit dans le second
+        assertEquals(1, response.getImported());
+        assertEquals(2, response.getFailed());
+        assertEquals(3, response.getErrors().get(0).getLine());
+        assertEquals(4, response.getErrors().get(1).getLine());
+        assertEquals(UserImportService.EMAIL_TAKEN, response.getErrors().get(1).getMessage());
+        List<User> users = insertedUsers(1);
+        assertEquals(1, users.size());
+        assertEquals("new@test.com", users.get(0).getEmail());
+    }
+
+    @Test
+    @DisplayName("Doit rejouer le lot ligne par ligne si un email a été inscrit entre-temps")
+    void shouldFallBackToSingleInsertsOnConflict() throws Exception {
+        // Préparation - le lot échoue, puis l'insertion isolée de pierre@test.com aussi
+        doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.size() == 2 || users.get(0).getEmail().equals("pierre@test.com")) {
+                throw new DataIntegrityViolationException("duplicate",
+                        new ConstraintViolationException("duplicate", null, "uk_users_email_normalized"));
+            }
+            return null;
+        }).when(userRepository).insertAll(anyList());
+
+        // Exécution
+        ImportResponse response = importService.importUsers(body(
+                "email,firstName,lastName,password",
+                "pierre@test.com,Pierre,Dupont,password1",
+                "paul@test.com,Paul,Martin,password2"), UserImportService.Format.CSV);
+
+        // Vérifications
+        assertEquals(1, response.getImported());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getLine());
+        verify(registeredEmails).add("paul@test.com");
+        verify(registeredEmails, never()).add("pierre@test.com");
+    }
+
+    @Test
+    @DisplayName("Doit borner le nombre d'erreurs détaillées")
+    void shouldTruncateErrors() throws Exception {
+        // Préparation
+        UserImportService strict = new UserImportService(userRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new UserBatchInserter(userRepository, registeredEmails, transactionManager), 1, 2, 1);
+
+        // Exécution
+        ImportResponse response = strict.importUsers(body("{", "{", "{"), UserImportService.Format.NDJSON);
+        strict.shutdown();
+
+        // Vérifications
+        assertEquals(3, response.getFailed());
+        assertEquals(1, response.getErrors().size());
+        assertTrue(response.isErrorsTruncated());
+        verify(userRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Doit refuser un CSV sans les colonnes attendues")
+    void shouldRejectCsvWithoutHeader() {
+        assertThrows(BadRequestException.class, () -> importService.importUsers(body(
+                "pierre@test.com,Pierre,Dupont,password1"), UserImportService.Format.CSV));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Doit découper les lignes CSV avec guillemets")
+    void shouldParseQuotedCsvFields() {
+        assertEquals(Arrays.asList("a", "b, \"c\"", ""), UserImportService.parseCsvLine("a,\"b, \"\"c\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.parseCsvLine("a,\"b"));
+    }
+}
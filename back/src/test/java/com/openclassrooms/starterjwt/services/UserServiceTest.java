@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.services;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RegisteredEmailFilter;
+import com.openclassrooms.starterjwt.security.services.UserChangeChannel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +23,12 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserChangeChannel userChangeChannel;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmails;
+
     @InjectMocks
     private UserService userService;
 
@@ -53,6 +61,19 @@ public class UserServiceTest {
         verify(userRepository, times(1)).deleteById(1L);
     }
 
+    // Check que la suppression invalide le principal en cache et signale l'email retiré au filtre
+    @Test
+    void testDelete_ShouldInvalidateCachedUser() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        // Act
+        userService.delete(1L);
+        // Assert
+        verify(userRepository, times(1)).deleteById(1L);
+        verify(userChangeChannel, times(1)).userChanged("user@test.com");
+        verify(registeredEmails, times(1)).markRemoved("user@test.com");
+    }
+
     // Check si l'appel est fait avec bon arguments et si l'objet est correctement retourné quand trouvé
     @Test
     void testFindById_Found() {
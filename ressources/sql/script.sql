@@ -10,6 +10,7 @@ CREATE TABLE `SESSIONS` (
   `id` INT PRIMARY KEY AUTO_INCREMENT,
   `name` VARCHAR(50),
   `description` VARCHAR(2000),
+  `capacity` INT,
   `date` TIMESTAMP,
   `teacher_id` int,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -21,10 +22,36 @@ CREATE TABLE `USERS` (
   `last_name` VARCHAR(40),
   `first_name` VARCHAR(40),
   `admin` BOOLEAN NOT NULL DEFAULT false,
-  `email` VARCHAR(255),
+  `email` VARCHAR(255) NOT NULL,
+  `email_normalized` VARCHAR(255) NOT NULL,
   `password` VARCHAR(255),
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  CONSTRAINT `uk_users_email` UNIQUE (`email`)
+);
+
+CREATE TABLE `REVOKED_TOKENS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `token_id` VARCHAR(36) NOT NULL UNIQUE,
+  `expires_at` DATETIME NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `REFRESH_TOKENS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `token_hash` VARCHAR(44) NOT NULL UNIQUE,
+  `user_id` INT NOT NULL,
+  `family_id` VARCHAR(36) NOT NULL,
+  `expires_at` DATETIME NOT NULL,
+  `revoked` BOOLEAN NOT NULL DEFAULT false,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `USER_CHANGES` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `email` VARCHAR(255) NOT NULL,
+  `changed_at` DATETIME NOT NULL,
+  INDEX `idx_user_changes_changed_at` (`changed_at`)
 );
 
 CREATE TABLE `PARTICIPATE` (
@@ -35,12 +62,37 @@ CREATE TABLE `PARTICIPATE` (
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
+ALTER TABLE `REFRESH_TOKENS` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
+CREATE UNIQUE INDEX `uk_users_email_normalized` ON `USERS` (`email_normalized`);
+CREATE INDEX `idx_sessions_date_id` ON `SESSIONS` (`date`, `id`);
 
 INSERT INTO TEACHERS (first_name, last_name)
 VALUES ('Margot', 'DELAHAYE'),
        ('Hélène', 'THIERCELIN');
 
 
-INSERT INTO USERS (first_name, last_name, admin, email, password)
-VALUES ('Admin', 'Admin', true, 'yoga@studio.com', '$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq'); 
+INSERT INTO USERS (first_name, last_name, admin, email, email_normalized, password)
+VALUES ('Admin', 'Admin', true, 'yoga@studio.com', 'yoga@studio.com', '$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq'); 
+
+-- Migration d'une base existante : unicité de l'email, sur laquelle repose l'inscription en une seule requête.
+-- Les doublons déjà présents font échouer la contrainte : à fusionner avant. Le nom de la contrainte
+-- compte : seule sa violation est rapportée comme "email déjà pris".
+--
+-- ALTER TABLE `USERS` ADD CONSTRAINT `uk_users_email` UNIQUE (`email`);
+--
+-- Si l'email est déjà unique (index `email` créé par l'ancien CREATE TABLE), il suffit de le renommer :
+--
+-- ALTER TABLE `USERS` RENAME INDEX `email` TO `uk_users_email`;
+
+-- Migration d'une base existante (à la place du CREATE TABLE USERS ci-dessus) :
+-- ajout de la colonne, remplissage depuis email, puis contrainte et index unique.
+-- Deux comptes ne différant que par la casse font échouer la création de l'index : à fusionner avant.
+--
+-- ALTER TABLE `USERS` ADD COLUMN `email_normalized` VARCHAR(255) NULL AFTER `email`;
+-- UPDATE `USERS` SET `email_normalized` = LOWER(TRIM(`email`)) WHERE `email_normalized` IS NULL;
+-- ALTER TABLE `USERS` MODIFY `email_normalized` VARCHAR(255) NOT NULL;
+-- CREATE UNIQUE INDEX `uk_users_email_normalized` ON `USERS` (`email_normalized`);
 
+-- Migration d'une base existante : nombre de places par séance, sans limite pour les séances déjà créées.
+--
+-- ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT NULL AFTER `description`;